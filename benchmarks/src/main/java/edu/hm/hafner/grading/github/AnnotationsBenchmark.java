@@ -0,0 +1,108 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.grading.CommentBuilder.CommentType;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link GitHubAnnotationsBuilder#createComment} for large scores. The warnings of a score and the missed
+ * lines of a coverage tree are converted into annotations by calling {@code createComment} once for each warning or
+ * missed line, so this benchmark calls the method directly with synthetic warnings that are spread over the files of
+ * a synthetic pull request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnnotationsBenchmark {
+    private static final int CHANGED_LINES_PER_FILE = 50;
+    private static final int LINES_PER_FILE = 500;
+
+    /** The number of warnings or missed lines. */
+    @Param({"1000", "100000"})
+    private int comments;
+
+    /** The number of files in the score and in the pull request. */
+    @Param({"100", "50000"})
+    private int files;
+
+    private Map<String, Set<Integer>> changedLines;
+    private String[] paths;
+    private int[] lines;
+
+    /**
+     * Creates the changed lines of the pull request and the locations of the warnings.
+     */
+    @Setup
+    public void createScore() {
+        changedLines = new HashMap<>();
+        for (int file = 0; file < files; file++) {
+            var start = (file % 10) * CHANGED_LINES_PER_FILE + 1;
+            changedLines.put(createPath(file), IntStream.range(start, start + CHANGED_LINES_PER_FILE)
+                    .boxed()
+                    .collect(Collectors.toSet()));
+        }
+
+        paths = new String[comments];
+        lines = new int[comments];
+        for (int comment = 0; comment < comments; comment++) {
+            paths[comment] = createPath(comment % files);
+            lines[comment] = comment * 7 % LINES_PER_FILE + 1;
+        }
+    }
+
+    private static String createPath(final int file) {
+        return "module-%d/src/main/java/edu/hm/hafner/generated/Generated%d.java".formatted(file % 20, file);
+    }
+
+    /**
+     * Creates an annotation for each warning.
+     *
+     * @param blackhole
+     *         consumes the annotations
+     */
+    @Benchmark
+    public void createWarningAnnotations(final Blackhole blackhole) {
+        createAnnotations(CommentType.WARNING, blackhole);
+    }
+
+    /**
+     * Creates an annotation for each missed line that is part of the changed lines.
+     *
+     * @param blackhole
+     *         consumes the annotations
+     */
+    @Benchmark
+    public void createCoverageAnnotations(final Blackhole blackhole) {
+        createAnnotations(CommentType.NO_COVERAGE, blackhole);
+    }
+
+    private void createAnnotations(final CommentType type, final Blackhole blackhole) {
+        var builder = new GitHubAnnotationsBuilder(changedLines, blackhole::consume, "", new FilteredLog());
+        for (int comment = 0; comment < comments; comment++) {
+            blackhole.consume(builder.createComment(type, paths[comment], lines[comment], lines[comment],
+                    "Generated warning", "Generated", 1, 10, "", ""));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package edu.hm.hafner.grading.github;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the character based {@link UnifiedDiffScanner} with the previous implementation that split the patch into
+ * lines and parsed the hunk headers with a regular expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffParserBenchmark {
+    private static final Pattern HUNK_REGEXP = Pattern.compile(
+            "^@@ -(?<oldStart>\\d+)(?:,\\d+)? \\+(?<newStart>\\d+)(?:,\\d+)? @@.*$");
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int hunks;
+
+    @Param({"\n", "\r\n"})
+    private String lineSeparator;
+
+    private String patch;
+
+    /**
+     * Creates a synthetic patch with the configured number of hunks. Each hunk contains context lines, deleted lines,
+     * and a block of added lines.
+     */
+    @Setup
+    public void createPatch() {
+        var builder = new StringBuilder();
+        int line = 1;
+        for (int hunk = 0; hunk < hunks; hunk++) {
+            builder.append("@@ -").append(line).append(",8 +").append(line).append(",10 @@ public class Generated {")
+                    .append(lineSeparator);
+            builder.append("     private int value").append(hunk).append(';').append(lineSeparator);
+            builder.append("-    private int removed;").append(lineSeparator);
+            for (int added = 0; added < 5; added++) {
+                builder.append("+    private String added").append(added).append(" = \"generated\";")
+                        .append(lineSeparator);
+            }
+            builder.append("     // context").append(lineSeparator);
+            line += 20;
+        }
+        patch = builder.toString();
+    }
+
+    /**
+     * Scans the patch with the {@link UnifiedDiffScanner} and consumes the reported ranges.
+     *
+     * @param blackhole
+     *         consumes the results
+     */
+    @Benchmark
+    public void scanRanges(final Blackhole blackhole) {
+        new UnifiedDiffScanner((first, last) -> blackhole.consume(first + last)).scan(patch);
+    }
+
+    /**
+     * Parses the patch with {@link GitHubDiffProvider#parseUnifiedDiffForNewFileAddedLines(String)}.
+     *
+     * @return the changed lines
+     */
+    @Benchmark
+    public Set<Integer> parseIntoSet() {
+        return GitHubDiffProvider.parseUnifiedDiffForNewFileAddedLines(patch);
+    }
+
+    /**
+     * Parses the patch with the previous regular expression based implementation.
+     *
+     * @return the changed lines
+     */
+    @Benchmark
+    public Set<Integer> parseWithRegularExpression() {
+        return parseLegacy(patch);
+    }
+
+    @SuppressWarnings("StringSplitter")
+    private static Set<Integer> parseLegacy(final String patch) {
+        Set<Integer> newFileChangedLines = new HashSet<>();
+        int newLinePointer = -1;
+
+        for (String raw : patch.split("\n")) {
+            var line = raw.endsWith("\r") ? raw.substring(0, raw.length() - 1) : raw;
+            if (line.startsWith("@@")) {
+                var matcher = HUNK_REGEXP.matcher(line);
+                if (matcher.matches()) {
+                    newLinePointer = Integer.parseInt(matcher.group("newStart"));
+                }
+                continue;
+            }
+            if (newLinePointer < 0 || line.isEmpty()) {
+                continue;
+            }
+            char marker = line.charAt(0);
+            if (marker == '+') {
+                newFileChangedLines.add(newLinePointer);
+                newLinePointer++;
+            }
+            else if (marker == ' ') {
+                newLinePointer++;
+            }
+        }
+        return newFileChangedLines;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.github.GHCheckRun.Conclusion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the formatting of the metrics for {@code metrics.env} and the creation of the metrics based title of the
+ * check run. The metrics contain the coverage metrics and one metric for each static analysis tool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final String[] COVERAGE_METRICS = {"line", "branch", "instruction", "mutation", "complexity"};
+
+    /** The number of metrics in the score. */
+    @Param({"10", "1000"})
+    private int size;
+
+    private final QualityMonitor monitor = new QualityMonitor();
+    private Map<String, Integer> roundedMetrics;
+    private Map<String, Double> metrics;
+
+    /**
+     * Creates the metrics of the score.
+     */
+    @Setup
+    public void createMetrics() {
+        roundedMetrics = new LinkedHashMap<>();
+        metrics = new LinkedHashMap<>();
+        for (int metric = 0; metric < size; metric++) {
+            var name = metric < COVERAGE_METRICS.length ? COVERAGE_METRICS[metric] : "tool-" + metric;
+            roundedMetrics.put(name, metric * 3 % 100);
+            metrics.put(name, metric * 3.14 % 100);
+        }
+    }
+
+    /**
+     * Formats the metrics for {@code metrics.env}.
+     *
+     * @return the formatted metrics
+     */
+    @Benchmark
+    public String formatMetrics() {
+        return QualityMonitor.formatMetrics(roundedMetrics);
+    }
+
+    /**
+     * Creates the title of the check run.
+     *
+     * @return the title
+     */
+    @Benchmark
+    public String createTitle() {
+        return monitor.createMetricsBasedTitle(metrics, Conclusion.SUCCESS, new FilteredLog());
+    }
+}
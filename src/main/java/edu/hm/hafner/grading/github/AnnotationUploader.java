@@ -0,0 +1,194 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+import org.kohsuke.github.GHCheckRunBuilder.Output;
+import org.kohsuke.github.GHRepository;
+
+/**
+ * Uploads the annotations of an already created check run in bounded batches. GitHub accepts at most 50 annotations
+ * per request, so the annotations are collected in batches of that size and appended to the check run with
+ * individual update requests. Several update requests are in flight at the same time, the producer blocks as soon as
+ * all requests are busy. So the number of annotations in memory is bounded by the batch size and the number of
+ * parallel requests, no matter how many annotations are created in total.
+ *
+ * <p>
+ * Annotations have the lowest priority of all requests: the batches are sent with the {@link GitHubRequestScheduler}
+ * that drops them if the remaining rate limit quota is low.
+ * </p>
+ */
+class AnnotationUploader implements AutoCloseable {
+    static final int MAX_ANNOTATIONS_PER_REQUEST = 50;
+    static final int DEFAULT_PARALLEL_REQUESTS = 4;
+
+    private final GHRepository repository;
+    private final GitHubRequestScheduler scheduler;
+    private final long checkRunId;
+    private final String title;
+    private final String summary;
+    private final FilteredLog log;
+
+    private final int batchSize;
+    private final Semaphore requests;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long start = System.nanoTime();
+
+    private final AtomicInteger sentBatches = new AtomicInteger();
+    private final AtomicInteger failedBatches = new AtomicInteger();
+    private final AtomicInteger droppedBatches = new AtomicInteger();
+    private final AtomicInteger uploadedAnnotations = new AtomicInteger();
+    private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+
+    private List<Annotation> batch;
+
+    /**
+     * Creates a new uploader for the specified check run.
+     *
+     * @param repository
+     *         the repository that contains the check run
+     * @param scheduler
+     *         the scheduler that sends the requests
+     * @param checkRunId
+     *         the ID of the check run that will receive the annotations
+     * @param output
+     *         the title and summary of the check run output (GitHub requires these values in every update)
+     * @param log
+     *         the logger
+     */
+    AnnotationUploader(final GHRepository repository, final GitHubRequestScheduler scheduler, final long checkRunId,
+            final OutputText output, final FilteredLog log) {
+        this(repository, scheduler, checkRunId, output, log, MAX_ANNOTATIONS_PER_REQUEST, DEFAULT_PARALLEL_REQUESTS);
+    }
+
+    AnnotationUploader(final GHRepository repository, final GitHubRequestScheduler scheduler, final long checkRunId,
+            final OutputText output, final FilteredLog log, final int batchSize, final int parallelRequests) {
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.checkRunId = checkRunId;
+        this.title = output.title();
+        this.summary = output.summary();
+        this.log = log;
+        this.batchSize = Math.clamp(batchSize, 1, MAX_ANNOTATIONS_PER_REQUEST);
+        this.requests = new Semaphore(Math.max(1, parallelRequests));
+        this.batch = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Adds the specified annotation to the current batch. If the batch is full, it will be uploaded in the background.
+     * Blocks if all parallel requests are currently in use.
+     *
+     * @param annotation
+     *         the annotation to add
+     */
+    void add(final Annotation annotation) {
+        batch.add(annotation);
+        if (batch.size() >= batchSize) {
+            submit();
+        }
+    }
+
+    private void submit() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        var annotations = batch;
+        batch = new ArrayList<>(batchSize);
+
+        requests.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                upload(annotations);
+            }
+            finally {
+                requests.release();
+            }
+        });
+    }
+
+    private void upload(final List<Annotation> annotations) {
+        var output = new Output(title, summary); // the text is not required, it has been sent with the check run
+        annotations.forEach(output::add);
+        try {
+            var run = scheduler.execute(GitHubRequestScheduler.Priority.ANNOTATIONS,
+                    () -> repository.updateCheckRun(checkRunId).add(output).create());
+            if (run.isPresent()) {
+                uploadedAnnotations.addAndGet(annotations.size());
+                sentBatches.incrementAndGet();
+            }
+            else {
+                droppedBatches.incrementAndGet();
+            }
+        }
+        catch (IOException exception) {
+            failedBatches.incrementAndGet();
+            errors.add("Could not upload %d annotations: %s".formatted(annotations.size(), exception.getMessage()));
+        }
+    }
+
+    /**
+     * Uploads the remaining annotations and waits until all requests have been finished.
+     *
+     * @return the result of the upload
+     */
+    UploadResult finish() {
+        submit();
+        executor.close();
+
+        errors.forEach(log::logError);
+
+        var result = new UploadResult(sentBatches.get(), failedBatches.get(), droppedBatches.get(),
+                uploadedAnnotations.get(), Duration.ofNanos(System.nanoTime() - start));
+        log.logInfo("Uploaded %d annotations in %d batches (%d failed) in %d ms",
+                result.annotations(), result.batches(), result.failures(), result.duration().toMillis());
+        if (result.dropped() > 0) {
+            log.logInfo("Skipped %d batches of annotations to save the remaining GitHub rate limit", result.dropped());
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * The texts of a check run output that need to be sent with every update of the check run. The details text is
+     * optional in an update, so it is sent only once when the check run is created.
+     *
+     * @param title
+     *         the title of the check run
+     * @param summary
+     *         the summary of the check run
+     */
+    record OutputText(String title, String summary) {
+    }
+
+    /**
+     * The result of an upload.
+     *
+     * @param batches
+     *         the number of successfully sent batches
+     * @param failures
+     *         the number of batches that could not be sent
+     * @param dropped
+     *         the number of batches that have been dropped to save the remaining rate limit
+     * @param annotations
+     *         the number of successfully uploaded annotations
+     * @param duration
+     *         the total time of the upload
+     */
+    record UploadResult(int batches, int failures, int dropped, int annotations, Duration duration) {
+    }
+}
@@ -0,0 +1,85 @@
+package edu.hm.hafner.grading.github;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the best elements of a stream of elements of unknown size. The selection keeps at most {@code limit}
+ * elements in a heap that has the worst selected element at its root. A new element replaces this root only if it is
+ * better, so memory is bounded by the limit no matter how many elements are offered, and each element costs at most
+ * {@code O(log limit)}.
+ *
+ * @param <T>
+ *         the type of the elements
+ */
+final class BoundedSelection<T> {
+    private final int limit;
+    private final Comparator<T> ranking;
+    private final PriorityQueue<T> selected;
+    private int offered;
+
+    /**
+     * Creates a new selection.
+     *
+     * @param limit
+     *         the maximum number of selected elements
+     * @param ranking
+     *         the ranking of the elements, better elements are greater
+     */
+    BoundedSelection(final int limit, final Comparator<T> ranking) {
+        this.limit = Math.max(0, limit);
+        this.ranking = ranking;
+        this.selected = new PriorityQueue<>(Math.min(this.limit, 1024) + 1, ranking);
+    }
+
+    /**
+     * Offers the specified element to the selection.
+     *
+     * @param element
+     *         the element
+     *
+     * @return {@code true} if the element has been selected (it might be replaced by a better element later),
+     *         {@code false} if the element is worse than all selected elements
+     */
+    boolean offer(final T element) {
+        offered++;
+        if (selected.size() < limit) {
+            selected.add(element);
+
+            return true;
+        }
+        if (limit > 0 && ranking.compare(element, selected.peek()) > 0) {
+            selected.poll();
+            selected.add(element);
+
+            return true;
+        }
+        return false;
+    }
+
+    int getOffered() {
+        return offered;
+    }
+
+    int getSelected() {
+        return selected.size();
+    }
+
+    /**
+     * Removes the selected elements from this selection.
+     *
+     * @param order
+     *         the order of the returned elements
+     *
+     * @return the selected elements in the specified order
+     */
+    List<T> drain(final Comparator<T> order) {
+        var elements = new ArrayList<>(selected);
+        selected.clear();
+        elements.sort(order);
+
+        return elements;
+    }
+}
@@ -0,0 +1,156 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.grading.github.HttpResponseCache.Entry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * A {@link GitHubConnector} that sends conditional requests for all {@code GET} requests of the GitHub API client and
+ * serves unchanged resources from a {@link HttpResponseCache}. A {@code 304 Not Modified} response is converted into
+ * a regular {@code 200} response with the cached body, so the client (e.g., the pagination of lists) is not aware of
+ * the cache.
+ */
+class CachingGitHubConnector implements GitHubConnector {
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private final GitHubConnector delegate;
+    private final HttpResponseCache cache;
+
+    CachingGitHubConnector(final GitHubConnector delegate, final HttpResponseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(final GitHubConnectorRequest request) throws IOException {
+        if (!"GET".equals(request.method()) || request.avoidCaching()) {
+            return delegate.send(request);
+        }
+
+        var url = request.url().toString();
+        var mediaType = request.header("Accept");
+        var cached = cache.lookup(url, mediaType);
+        if (cached.isEmpty()) {
+            return store(request, delegate.send(request));
+        }
+
+        var response = delegate.send(new ConditionalRequest(request, cached.get().etag()));
+        if (response.statusCode() == HTTP_NOT_MODIFIED) {
+            var headers = HttpResponseCache.mergeHeaders(cached.get().headers(), response.allHeaders());
+            response.close();
+            cache.recordHit();
+
+            return new CachedResponse(request, headers, Files.readAllBytes(cached.get().body()));
+        }
+        return store(request, response);
+    }
+
+    private GitHubConnectorResponse store(final GitHubConnectorRequest request,
+            final GitHubConnectorResponse response) throws IOException {
+        if (response.statusCode() != HTTP_OK || response.header("ETag") == null) {
+            return response;
+        }
+
+        byte[] body;
+        try (response) {
+            body = response.bodyStream().readAllBytes();
+        }
+        try {
+            Entry entry = cache.store(request.url().toString(), request.header("Accept"),
+                    response.allHeaders(), new ByteArrayInputStream(body));
+            return new CachedResponse(request, entry.headers(), body);
+        }
+        catch (IOException _) {
+            // the response is still valid if the cache is not writable
+            return new CachedResponse(request, HttpResponseCache.mergeHeaders(Map.of(), response.allHeaders()), body);
+        }
+    }
+
+    /**
+     * A request that adds the {@code If-None-Match} header to an existing request.
+     */
+    private static final class ConditionalRequest implements GitHubConnectorRequest {
+        private final GitHubConnectorRequest request;
+        private final Map<String, List<String>> headers;
+
+        ConditionalRequest(final GitHubConnectorRequest request, final String etag) {
+            this.request = request;
+            this.headers = new LinkedHashMap<>(request.allHeaders());
+            this.headers.put("If-None-Match", List.of(etag));
+        }
+
+        @Override
+        public String method() {
+            return request.method();
+        }
+
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @Override
+        public String header(final String name) {
+            if ("If-None-Match".equalsIgnoreCase(name)) {
+                return headers.get("If-None-Match").getFirst();
+            }
+            return request.header(name);
+        }
+
+        @Override
+        public String contentType() {
+            return request.contentType();
+        }
+
+        @Override
+        public InputStream body() {
+            return request.body();
+        }
+
+        @Override
+        public URL url() {
+            return request.url();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return request.hasBody();
+        }
+
+        @Override
+        public boolean avoidCaching() {
+            return request.avoidCaching();
+        }
+    }
+
+    /**
+     * A response with a body that is already in memory.
+     */
+    private static final class CachedResponse extends GitHubConnectorResponse {
+        private final byte[] body;
+
+        CachedResponse(final GitHubConnectorRequest request, final Map<String, List<String>> headers,
+                final byte[] body) {
+            super(request, HTTP_OK, headers);
+
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+}
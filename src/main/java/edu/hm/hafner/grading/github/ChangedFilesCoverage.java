@@ -0,0 +1,159 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Mutation;
+import edu.hm.hafner.coverage.MutationStatus;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.CoverageScore;
+import edu.hm.hafner.util.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Provides the coverage results of the files that have been changed in a pull request. Only the file nodes of the
+ * coverage reports that match a changed file are retained, so the lines of all other files of the project are never
+ * visited. The lines of the retained files are visited by a {@link Visitor}.
+ */
+final class ChangedFilesCoverage {
+    private final Map<String, List<FileNode>> codeCoverage;
+    private final Map<String, List<FileNode>> mutationCoverage;
+
+    /**
+     * Collects the file nodes of the specified score that match the changed files.
+     *
+     * @param score
+     *         the score with the coverage reports
+     * @param changedLines
+     *         the changed lines of the pull request
+     * @param cleanPath
+     *         converts the path of a file node to a repository-relative path
+     *
+     * @return the coverage results of the changed files
+     */
+    static ChangedFilesCoverage of(final AggregatedScore score, final ChangedLinesIndex changedLines,
+            final UnaryOperator<String> cleanPath) {
+        return new ChangedFilesCoverage(
+                collectChangedFiles(score.getCodeCoverageScores(), changedLines, cleanPath),
+                collectChangedFiles(score.getMutationCoverageScores(), changedLines, cleanPath));
+    }
+
+    private static Map<String, List<FileNode>> collectChangedFiles(final List<CoverageScore> scores,
+            final ChangedLinesIndex changedLines, final UnaryOperator<String> cleanPath) {
+        var files = new HashMap<String, List<FileNode>>();
+        if (changedLines.size() == 0) {
+            return files;
+        }
+        for (CoverageScore score : scores) {
+            for (FileNode file : score.getReport().getAllFileNodes()) {
+                var path = cleanPath.apply(file.getRelativePath());
+                if (changedLines.contains(path)) {
+                    files.computeIfAbsent(path, _ -> new ArrayList<>()).add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    @VisibleForTesting
+    ChangedFilesCoverage(final Map<String, List<FileNode>> codeCoverage,
+            final Map<String, List<FileNode>> mutationCoverage) {
+        this.codeCoverage = codeCoverage;
+        this.mutationCoverage = mutationCoverage;
+    }
+
+    /**
+     * Visits the missed lines, the partially covered lines, and the survived mutations of the changed files.
+     *
+     * @param visitor
+     *         the visitor
+     */
+    void accept(final Visitor visitor) {
+        codeCoverage.forEach((path, files) -> files.forEach(file -> visitCodeCoverage(path, file, visitor)));
+        mutationCoverage.forEach((path, files) -> files.forEach(file -> visitMutations(path, file, visitor)));
+    }
+
+    private void visitCodeCoverage(final String path, final FileNode file, final Visitor visitor) {
+        var start = -1;
+        var end = -1;
+        for (int line : file.getMissedLines()) {
+            if (line != end + 1) {
+                if (start > 0) {
+                    visitor.visitMissedLines(path, start, end);
+                }
+                start = line;
+            }
+            end = line;
+        }
+        if (start > 0) {
+            visitor.visitMissedLines(path, start, end);
+        }
+
+        file.getPartiallyCoveredLines().forEach(
+                (line, missedBranches) -> visitor.visitPartiallyCoveredLine(path, line, missedBranches));
+    }
+
+    private void visitMutations(final String path, final FileNode file, final Visitor visitor) {
+        NavigableMap<Integer, List<Mutation>> survived = new TreeMap<>();
+        for (Mutation mutation : file.getMutations()) {
+            if (mutation.getStatus() == MutationStatus.SURVIVED) {
+                survived.computeIfAbsent(mutation.getLine(), _ -> new ArrayList<>()).add(mutation);
+            }
+        }
+        survived.forEach((line, mutations) -> visitor.visitSurvivedMutations(path, line, mutations));
+    }
+
+    int getChangedFiles() {
+        var changedFiles = new HashSet<>(codeCoverage.keySet());
+        changedFiles.addAll(mutationCoverage.keySet());
+
+        return changedFiles.size();
+    }
+
+    /**
+     * Visits the coverage results of a changed file.
+     */
+    interface Visitor {
+        /**
+         * Visits a range of lines that are not covered by tests.
+         *
+         * @param path
+         *         the repository-relative path of the file
+         * @param start
+         *         the first missed line
+         * @param end
+         *         the last missed line
+         */
+        void visitMissedLines(String path, int start, int end);
+
+        /**
+         * Visits a line that has branches that are not covered by tests.
+         *
+         * @param path
+         *         the repository-relative path of the file
+         * @param line
+         *         the line
+         * @param missedBranches
+         *         the number of missed branches
+         */
+        void visitPartiallyCoveredLine(String path, int line, int missedBranches);
+
+        /**
+         * Visits a line that has survived mutations.
+         *
+         * @param path
+         *         the repository-relative path of the file
+         * @param line
+         *         the line
+         * @param mutations
+         *         the survived mutations
+         */
+        void visitSurvivedMutations(String path, int line, List<Mutation> mutations);
+    }
+}
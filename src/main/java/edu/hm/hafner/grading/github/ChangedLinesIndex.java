@@ -0,0 +1,106 @@
+package edu.hm.hafner.grading.github;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the lines that have been changed in a pull request. For each file, the changed lines are stored as sorted
+ * ranges of primitive integers (see {@link LineRanges}), so the index requires only a small fraction of the memory of
+ * a map of boxed integer sets and answers range queries in {@code O(log n)}.
+ */
+final class ChangedLinesIndex {
+    private static final ChangedLinesIndex EMPTY = new ChangedLinesIndex(Map.of());
+
+    private final Map<String, LineRanges> rangesByPath;
+
+    /**
+     * Returns an empty index.
+     *
+     * @return an empty index
+     */
+    static ChangedLinesIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index for the specified changed lines. If the values of the map are already {@link LineRanges}
+     * instances, then these instances are reused.
+     *
+     * @param changedLines
+     *         a mapping of a repository-relative file path to the changed lines in that file
+     *
+     * @return the index
+     */
+    static ChangedLinesIndex of(final Map<String, ? extends Set<Integer>> changedLines) {
+        if (changedLines.isEmpty()) {
+            return EMPTY;
+        }
+        var ranges = HashMap.<String, LineRanges>newHashMap(changedLines.size());
+        changedLines.forEach((path, lines) -> ranges.put(path, LineRanges.of(lines)));
+        return new ChangedLinesIndex(ranges);
+    }
+
+    private ChangedLinesIndex(final Map<String, LineRanges> rangesByPath) {
+        this.rangesByPath = rangesByPath;
+    }
+
+    /**
+     * Returns whether the specified file has been changed.
+     *
+     * @param path
+     *         the repository-relative path of the file
+     *
+     * @return {@code true} if the file contains changed lines, {@code false} otherwise
+     */
+    boolean contains(final String path) {
+        return rangesByPath.containsKey(path);
+    }
+
+    /**
+     * Returns whether at least one line of the range {@code [start, end]} in the specified file has been changed.
+     *
+     * @param path
+     *         the repository-relative path of the file
+     * @param start
+     *         the first line of the range (inclusive)
+     * @param end
+     *         the last line of the range (inclusive)
+     *
+     * @return {@code true} if the range overlaps with the changed lines, {@code false} otherwise
+     */
+    boolean overlaps(final String path, final int start, final int end) {
+        var ranges = rangesByPath.get(path);
+
+        return ranges != null && ranges.overlaps(start, end);
+    }
+
+    /**
+     * Returns the paths of all changed files.
+     *
+     * @return the changed files
+     */
+    Set<String> getFiles() {
+        return Collections.unmodifiableSet(rangesByPath.keySet());
+    }
+
+    /**
+     * Returns the changed lines as a map. The values of the map are the compact {@link LineRanges} of this index, no
+     * data is copied.
+     *
+     * @return a mapping of a repository-relative file path to a set of 1-based changed line numbers
+     */
+    Map<String, Set<Integer>> asMap() {
+        return Collections.unmodifiableMap(rangesByPath);
+    }
+
+    /**
+     * Returns the number of changed files.
+     *
+     * @return the number of changed files
+     */
+    int size() {
+        return rangesByPath.size();
+    }
+}
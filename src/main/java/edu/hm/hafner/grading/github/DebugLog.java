@@ -0,0 +1,197 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the verbose debug output of the action that is enabled with the environment variable {@code LOG_COMMENTS}.
+ * This output might contain several lines for each annotation and each changed file, so it is not stored in a
+ * {@code FilteredLog} that would keep all lines in memory. Instead, the messages are written to a bounded ring buffer
+ * and are formatted and printed by a background thread. If the buffer is full, then new messages are dropped and only
+ * the number of dropped messages is reported.
+ *
+ * <p>
+ * Each phase of the action writes to its own {@link Channel}, the lines of a channel are prefixed with the name of the
+ * phase. Since the buffer is processed in FIFO order, the lines of each phase are printed in the order they have been
+ * logged, even if several phases run in parallel.
+ * </p>
+ */
+final class DebugLog implements AutoCloseable {
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final DebugLog DISABLED = new DebugLog();
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final boolean enabled;
+    private final PrintStream output;
+    private final int capacity;
+    private final BlockingQueue<Entry> buffer;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates a debug log that is enabled if the environment variable {@code LOG_COMMENTS} is set.
+     *
+     * @param output
+     *         the stream to print the messages to
+     *
+     * @return the debug log
+     */
+    static DebugLog fromEnvironment(final PrintStream output) {
+        if (JobEnvironment.getEnv("LOG_COMMENTS").isBlank()) {
+            return DISABLED;
+        }
+        return new DebugLog(output, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns a debug log that ignores all messages.
+     *
+     * @return the disabled debug log
+     */
+    static DebugLog disabled() {
+        return DISABLED;
+    }
+
+    private DebugLog() {
+        enabled = false;
+        output = System.out;
+        capacity = 1;
+        buffer = new ArrayBlockingQueue<>(capacity);
+        writer = null;
+        closed = true;
+    }
+
+    DebugLog(final PrintStream output, final int capacity) {
+        this.enabled = true;
+        this.output = output;
+        this.capacity = capacity;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = Thread.ofVirtual().name("debug-log").start(this::write);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens a channel for the specified phase of the action.
+     *
+     * @param phase
+     *         the name of the phase
+     *
+     * @return the channel
+     */
+    Channel channel(final String phase) {
+        return new Channel(phase);
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                var entry = buffer.take();
+                if (entry.channel() == null) {
+                    return;
+                }
+                output.println(entry.format());
+            }
+        }
+        catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(final Entry entry) {
+        try {
+            buffer.put(entry);
+        }
+        catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prints all buffered messages and stops the background thread. Messages that are logged afterward are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        put(new Entry(null, StringUtils.EMPTY, NO_ARGUMENTS));
+        try {
+            writer.join();
+        }
+        catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+        output.flush();
+    }
+
+    /**
+     * The debug output of a single phase of the action.
+     */
+    final class Channel implements AutoCloseable {
+        private final String phase;
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Channel(final String phase) {
+            this.phase = phase;
+        }
+
+        /**
+         * Returns whether messages are logged. Callers should check this method before computing expensive
+         * arguments.
+         *
+         * @return {@code true} if messages are logged, {@code false} if all messages are ignored
+         */
+        boolean isEnabled() {
+            return enabled && !closed;
+        }
+
+        /**
+         * Logs the specified message. The message is formatted by the background thread, so the arguments must not be
+         * modified afterward.
+         *
+         * @param format
+         *         a format string, see {@link String#format(String, Object...)}
+         * @param args
+         *         the arguments of the format string
+         */
+        void log(final String format, final Object... args) {
+            if (!enabled) {
+                return;
+            }
+            if (closed || !buffer.offer(new Entry(this, format, args))) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Closes this channel and reports the number of dropped messages, if there are any.
+         */
+        @Override
+        public void close() {
+            var count = dropped.getAndSet(0);
+            if (count > 0 && !closed) {
+                put(new Entry(this, "%d debug messages have been dropped, the buffer of %d messages was full",
+                        new Object[] {count, capacity}));
+            }
+        }
+    }
+
+    private record Entry(Channel channel, String message, Object[] args) {
+        String format() {
+            return "[%s] %s".formatted(channel.phase, message.formatted(args));
+        }
+    }
+}
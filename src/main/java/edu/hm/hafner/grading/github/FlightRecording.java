@@ -0,0 +1,260 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+import edu.hm.hafner.util.VisibleForTesting;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Records a Java Flight Recorder session of the whole run. The action runs in a short-lived Docker container, so it
+ * is not possible to attach a profiler from the outside. Instead, the recording is started with the built-in
+ * {@code profile} settings of the JDK when the action starts, and it is stopped when the results are published. The
+ * recording is written to {@link #FILE} in the workspace, so it can be uploaded as an artifact and opened in JDK
+ * Mission Control. Additionally, the hot spots of the recording are summarized in the log and in a collapsible
+ * section of the checks details.
+ *
+ * <p>
+ * The recording is enabled with the environment variable {@code PROFILE}.
+ * </p>
+ */
+final class FlightRecording {
+    /** The name of the recording file in the workspace. */
+    static final String FILE = "quality-monitor.jfr";
+
+    private static final String SETTINGS = "profile";
+    private static final int MAX_HOT_SPOTS = 10;
+
+    private final Path file;
+    private final Recording recording;
+    private final String startError;
+    private Summary summary;
+
+    /**
+     * Creates a recording that is started if the environment variable {@code PROFILE} is set.
+     *
+     * @return the recording
+     */
+    static FlightRecording fromEnvironment() {
+        if (JobEnvironment.getEnv("PROFILE").isBlank()) {
+            return disabled();
+        }
+        return start(JobEnvironment.resolve(FILE));
+    }
+
+    /**
+     * Returns a recording that records nothing.
+     *
+     * @return the disabled recording
+     */
+    static FlightRecording disabled() {
+        return new FlightRecording(null, null, StringUtils.EMPTY);
+    }
+
+    @VisibleForTesting
+    static FlightRecording start(final Path file) {
+        try {
+            var recording = new Recording(Configuration.getConfiguration(SETTINGS));
+            recording.setName("quality-monitor");
+            recording.setToDisk(true);
+            recording.start();
+
+            return new FlightRecording(file, recording, StringUtils.EMPTY);
+        }
+        catch (IOException | ParseException | IllegalStateException | SecurityException exception) {
+            return new FlightRecording(file, null, "Can't start the flight recording: " + exception.getMessage());
+        }
+    }
+
+    private FlightRecording(final Path file, final Recording recording, final String startError) {
+        this.file = file;
+        this.recording = recording;
+        this.startError = startError;
+    }
+
+    boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Stops the recording, writes it to the recording file, and summarizes the hot spots. Subsequent calls return the
+     * summary of the first call.
+     *
+     * @param log
+     *         the logger
+     *
+     * @return the summary of the recording, or an empty optional if the recording is disabled or failed
+     */
+    synchronized Optional<Summary> stop(final FilteredLog log) {
+        if (summary != null || !isEnabled()) {
+            return Optional.ofNullable(summary);
+        }
+        if (recording == null) {
+            log.logError(startError);
+
+            return Optional.empty();
+        }
+        try (recording) {
+            recording.stop();
+            recording.dump(file);
+
+            summary = summarize(RecordingFile.readAllEvents(file));
+            log.logInfo("Wrote flight recording to '%s'", file);
+            summary.log(log);
+
+            return Optional.of(summary);
+        }
+        catch (IOException | IllegalStateException exception) {
+            log.logException(exception, "Can't write the flight recording to '%s'", file);
+
+            return Optional.empty();
+        }
+    }
+
+    private Summary summarize(final List<RecordedEvent> events) {
+        var result = new Summary(file.getFileName().toString());
+        for (RecordedEvent event : events) {
+            switch (event.getEventType().getName()) {
+                case "jdk.ExecutionSample" -> result.addExecutionSample(getTopFrame(event));
+                case "jdk.ObjectAllocationSample" -> result.addAllocation(getTopFrame(event), event.getLong("weight"));
+                case "jdk.GarbageCollection" -> result.addGarbageCollection(
+                        event.getDuration("sumOfPauses"), event.getDuration("longestPause"));
+                case "jdk.GCHeapSummary" -> result.addHeapUsage(event.getLong("heapUsed"));
+                default -> {
+                    // not part of the summary
+                }
+            }
+        }
+        return result;
+    }
+
+    private String getTopFrame(final RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .findFirst()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .orElse("unknown");
+    }
+
+    /**
+     * The summary of a recording: the methods with the most CPU samples, the methods that allocate the most memory,
+     * the garbage collection pauses, and the peak heap usage.
+     */
+    static final class Summary {
+        private final String fileName;
+        private final Map<String, Long> cpu = new HashMap<>();
+        private final Map<String, Long> allocations = new HashMap<>();
+        private long samples;
+        private long allocated;
+        private int collections;
+        private Duration pauses = Duration.ZERO;
+        private Duration longestPause = Duration.ZERO;
+        private long peakHeap;
+
+        Summary(final String fileName) {
+            this.fileName = fileName;
+        }
+
+        void addExecutionSample(final String method) {
+            cpu.merge(method, 1L, Long::sum);
+            samples++;
+        }
+
+        void addAllocation(final String method, final long bytes) {
+            allocations.merge(method, bytes, Long::sum);
+            allocated += bytes;
+        }
+
+        void addGarbageCollection(final Duration sumOfPauses, final Duration longest) {
+            collections++;
+            pauses = pauses.plus(sumOfPauses);
+            if (longest.compareTo(longestPause) > 0) {
+                longestPause = longest;
+            }
+        }
+
+        void addHeapUsage(final long bytes) {
+            peakHeap = Math.max(peakHeap, bytes);
+        }
+
+        private void log(final FilteredLog log) {
+            log.logInfo("Flight recording: %d CPU samples, %s allocated, %d GC pauses (%d ms in total, longest %d ms), "
+                    + "peak heap %s", samples, formatSize(allocated), collections, pauses.toMillis(),
+                    longestPause.toMillis(), formatSize(peakHeap));
+            getTop(cpu).forEach(entry -> log.logInfo("-> CPU hot spot %s: %s of the samples",
+                    entry.getKey(), formatShare(entry.getValue(), samples)));
+            getTop(allocations).forEach(entry -> log.logInfo("-> Allocation hot spot %s: %s",
+                    entry.getKey(), formatSize(entry.getValue())));
+        }
+
+        /**
+         * Creates the collapsible Markdown section of the checks details.
+         *
+         * @return the Markdown section
+         */
+        String toMarkdown() {
+            var markdown = new StringBuilder(2048);
+            markdown.append("\n\n<details>\n<summary>Profile</summary>\n\n");
+            markdown.append("| GC pauses | Total pause time | Longest pause | Peak heap | Allocated |\n")
+                    .append("|---:|---:|---:|---:|---:|\n")
+                    .append("| %d | %d ms | %d ms | %s | %s |%n".formatted(collections, pauses.toMillis(),
+                            longestPause.toMillis(), formatSize(peakHeap), formatSize(allocated)));
+
+            if (!cpu.isEmpty()) {
+                markdown.append("\n| CPU hot spot | Samples | Share |\n|:---|---:|---:|\n");
+                getTop(cpu).forEach(entry -> markdown.append("| `%s` | %d | %s |%n".formatted(
+                        entry.getKey(), entry.getValue(), formatShare(entry.getValue(), samples))));
+            }
+            if (!allocations.isEmpty()) {
+                markdown.append("\n| Allocation hot spot | Allocated | Share |\n|:---|---:|---:|\n");
+                getTop(allocations).forEach(entry -> markdown.append("| `%s` | %s | %s |%n".formatted(
+                        entry.getKey(), formatSize(entry.getValue()), formatShare(entry.getValue(), allocated))));
+            }
+            markdown.append("\nThe complete recording has been written to `%s`.%n".formatted(fileName));
+            markdown.append("\n</details>\n");
+
+            return markdown.toString();
+        }
+
+        private List<Entry<String, Long>> getTop(final Map<String, Long> values) {
+            return values.entrySet().stream()
+                    .sorted(Entry.<String, Long>comparingByValue().reversed().thenComparing(Entry.comparingByKey()))
+                    .limit(MAX_HOT_SPOTS)
+                    .toList();
+        }
+
+        private String formatShare(final long value, final long total) {
+            return String.format(Locale.ENGLISH, "%.1f%%", value * 100.0 / Math.max(1, total));
+        }
+
+        private String formatSize(final long bytes) {
+            if (bytes < 1024) {
+                return bytes + " B";
+            }
+            if (bytes < 1024 * 1024) {
+                return "%d KB".formatted(bytes / 1024);
+            }
+            return "%d MB".formatted(bytes / (1024 * 1024));
+        }
+    }
+}
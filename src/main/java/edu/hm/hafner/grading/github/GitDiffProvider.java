@@ -0,0 +1,177 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides changed lines from the git history of the local workspace so patch coverage can be computed without
+ * calling the GitHub API.
+ *
+ * <p>
+ * Computes the merge base of a base revision and the head revision and parses the output of {@code git diff} between
+ * these two commits with the {@link GitDiffReader}. So the results are the same as the diff of a pull request that
+ * GitHub shows. The workspace must contain the history of both revisions, e.g., by using {@code fetch-depth: 0} in
+ * the checkout action.
+ * </p>
+ *
+ * <p>
+ * Git is killed if it does not finish within a timeout, so reading its output never blocks the run. The error output
+ * of git is written to a temporary file, so git never blocks on a full error pipe while its output is read.
+ * </p>
+ */
+class GitDiffProvider {
+    private static final long TIMEOUT_IN_MINUTES = 5;
+    private static final int MAX_ERROR_LENGTH = 4096;
+
+    private final Path workspace;
+
+    /**
+     * Creates a new provider that runs git in the specified workspace.
+     *
+     * @param workspace
+     *         the root folder of the git repository
+     */
+    GitDiffProvider(final Path workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Loads the changed lines per file between the merge base of the specified revisions and the head revision.
+     *
+     * @param base
+     *         the base revision, e.g., the target branch of a pull request
+     * @param head
+     *         the head revision that has been analyzed
+     * @param log
+     *         logger
+     *
+     * @return a mapping of a repository-relative file path to a set of 1-based changed line numbers
+     */
+    Map<String, Set<Integer>> loadChangedLines(final String base, final String head, final FilteredLog log) {
+        try {
+            var mergeBase = findMergeBase(base, head, log);
+            if (mergeBase.isEmpty()) {
+                return Map.of();
+            }
+
+            log.logInfo("Computing changed lines between merge base %s and %s with git", mergeBase.get(), head);
+            try (var git = start("diff", "--no-color", "--no-ext-diff", "--no-textconv", "--find-renames",
+                    "--unified=0", mergeBase.get(), head)) {
+                Map<String, Set<Integer>> changedLines;
+                try (var reader = new InputStreamReader(git.getOutput(), StandardCharsets.UTF_8)) {
+                    changedLines = new GitDiffReader().read(reader);
+                }
+                if (git.waitFor(log)) {
+                    log.logInfo("Loaded diff from git: %d changed files", changedLines.size());
+
+                    return changedLines;
+                }
+            }
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Failed to load changed lines with git, "
+                    + "annotations and patch coverage are computed without changed lines");
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.logException(exception, "Interrupted while loading changed lines with git");
+        }
+        return Map.of();
+    }
+
+    private Optional<String> findMergeBase(final String base, final String head, final FilteredLog log)
+            throws IOException, InterruptedException {
+        try (var git = start("merge-base", base, head)) {
+            var output = new String(git.getOutput().readAllBytes(), StandardCharsets.UTF_8).strip();
+            if (git.waitFor(log) && !output.isEmpty()) {
+                return Optional.of(output);
+            }
+        }
+        log.logError("Can't find a merge base of '%s' and '%s': "
+                + "make sure that the checkout contains the history of both revisions (fetch-depth: 0)", base, head);
+        return Optional.empty();
+    }
+
+    private GitProcess start(final String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-c");
+        command.add("safe.directory=*"); // the workspace is owned by a different user in the container
+        command.addAll(List.of(arguments));
+
+        return new GitProcess(new ProcessBuilder(command).directory(workspace.toFile()));
+    }
+
+    /**
+     * A running git process. The process is destroyed as soon as the timeout has been exceeded, so that the output
+     * stream of the process is closed and a blocked reader continues.
+     */
+    private static final class GitProcess implements AutoCloseable {
+        private final Path errors;
+        private final Process process;
+        private final CompletableFuture<Process> exit;
+
+        GitProcess(final ProcessBuilder builder) throws IOException {
+            errors = Files.createTempFile("git-", ".log");
+            try {
+                process = builder.redirectError(errors.toFile()).start();
+            }
+            catch (IOException exception) {
+                Files.deleteIfExists(errors);
+
+                throw new IOException("Git is not installed (the image of the jlink profile contains no git), "
+                        + "use diff-source 'github' in this image: " + exception.getMessage(), exception);
+            }
+            exit = process.onExit().orTimeout(TIMEOUT_IN_MINUTES, TimeUnit.MINUTES);
+            exit.whenComplete((_, timeout) -> {
+                if (timeout != null) {
+                    process.destroyForcibly();
+                }
+            });
+        }
+
+        InputStream getOutput() {
+            return process.getInputStream();
+        }
+
+        boolean waitFor(final FilteredLog log) throws IOException, InterruptedException {
+            process.waitFor();
+            if (exit.isCompletedExceptionally()) {
+                log.logError("Git did not finish within %d minutes", TIMEOUT_IN_MINUTES);
+
+                return false;
+            }
+            if (process.exitValue() != 0) {
+                log.logError("Git failed with exit code %d: %s", process.exitValue(), readErrors());
+
+                return false;
+            }
+            return true;
+        }
+
+        private String readErrors() throws IOException {
+            try (var input = Files.newInputStream(errors)) {
+                return new String(input.readNBytes(MAX_ERROR_LENGTH), StandardCharsets.UTF_8).strip();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            process.destroyForcibly();
+            Files.deleteIfExists(errors);
+        }
+    }
+}
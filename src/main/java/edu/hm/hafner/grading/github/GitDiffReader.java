@@ -0,0 +1,178 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a multi-file diff in the format of {@code git diff} (e.g., the diff of a pull request that GitHub provides
+ * with the {@code application/vnd.github.diff} media type) and collects the added lines of each file. The diff is
+ * streamed through a reusable character buffer, so neither the whole diff nor the individual lines are kept in
+ * memory as strings. The hunks of each file are parsed with the {@link UnifiedDiffScanner}.
+ *
+ * <p>
+ * Files are keyed by the new filename, deleted files and files without added lines (e.g., binary files or pure
+ * renames) are skipped.
+ * </p>
+ */
+class GitDiffReader {
+    private static final String FILE_HEADER = "diff --git ";
+    private static final String NEW_FILE = "+++ ";
+    private static final String DEV_NULL = "/dev/null";
+    private static final String NEW_FILE_PREFIX = "b/";
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private final Map<String, Set<Integer>> changedLinesByPath = new HashMap<>();
+    private final UnifiedDiffScanner scanner = new UnifiedDiffScanner(this::addLines);
+
+    private LineRanges.Builder lines = new LineRanges.Builder();
+    private String path = "";
+    private boolean isInHeader;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private CharBuffer text = CharBuffer.wrap(buffer);
+
+    /**
+     * Reads the specified diff and returns the changed lines of each file.
+     *
+     * @param reader
+     *         the reader that provides the diff
+     *
+     * @return a mapping of a repository-relative file path to a set of 1-based changed line numbers
+     * @throws IOException
+     *         if the diff could not be read
+     */
+    Map<String, Set<Integer>> read(final Reader reader) throws IOException {
+        int length = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            int lineStart = 0;
+            int end = length + read;
+            for (int i = length; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    readLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            length = end - lineStart;
+            if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, length);
+            }
+            else if (length == buffer.length) { // the line does not fit into the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                text = CharBuffer.wrap(buffer);
+            }
+        }
+        if (length > 0) {
+            readLine(0, length);
+        }
+        finishFile();
+
+        return changedLinesByPath;
+    }
+
+    private void readLine(final int start, final int end) {
+        if (startsWith(start, end, FILE_HEADER)) {
+            finishFile();
+            isInHeader = true;
+        }
+        else if (isInHeader) {
+            readHeader(start, end);
+        }
+        else if (!path.isEmpty()) {
+            scanner.scanLine(text, start, end);
+        }
+    }
+
+    private void readHeader(final int start, final int end) {
+        if (startsWith(start, end, NEW_FILE)) {
+            path = extractPath(start + NEW_FILE.length(), end);
+        }
+        else if (startsWith(start, end, "@@")) {
+            isInHeader = false;
+            if (!path.isEmpty()) {
+                scanner.scanLine(text, start, end);
+            }
+        }
+    }
+
+    private String extractPath(final int start, final int end) {
+        int pathEnd = end;
+        while (pathEnd > start && (buffer[pathEnd - 1] == '\r' || buffer[pathEnd - 1] == '\t')) {
+            pathEnd--;
+        }
+        var name = new String(buffer, start, pathEnd - start);
+        if (name.startsWith("\"") && name.endsWith("\"") && name.length() > 1) {
+            name = unquote(name.substring(1, name.length() - 1));
+        }
+        if (DEV_NULL.equals(name)) {
+            return ""; // deleted file
+        }
+        if (name.startsWith(NEW_FILE_PREFIX)) {
+            name = name.substring(NEW_FILE_PREFIX.length());
+        }
+        return name.replace('\\', '/');
+    }
+
+    /**
+     * Removes the C-style escapes that git uses for quoted file names with special characters.
+     */
+    private String unquote(final String quoted) {
+        var bytes = new ByteArrayOutputStream(quoted.length());
+        for (int i = 0; i < quoted.length(); i++) {
+            char c = quoted.charAt(i);
+            if (c == '\\' && i + 1 < quoted.length()) {
+                char escaped = quoted.charAt(++i);
+                if (escaped >= '0' && escaped <= '7' && i + 2 < quoted.length()) {
+                    bytes.write(Integer.parseInt(quoted.substring(i, i + 3), 8));
+                    i += 2;
+                }
+                else {
+                    bytes.write(switch (escaped) {
+                        case 'n' -> '\n';
+                        case 't' -> '\t';
+                        case 'r' -> '\r';
+                        default -> escaped;
+                    });
+                }
+            }
+            else {
+                var encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private boolean startsWith(final int start, final int end, final String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addLines(final int firstLine, final int lastLine) {
+        lines.add(firstLine, lastLine);
+    }
+
+    private void finishFile() {
+        scanner.finish();
+        if (!path.isEmpty() && !lines.isEmpty()) {
+            changedLinesByPath.put(path, lines.build());
+        }
+        lines = new LineRanges.Builder();
+        path = "";
+        isInHeader = false;
+    }
+}
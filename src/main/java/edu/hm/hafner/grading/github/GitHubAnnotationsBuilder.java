@@ -2,53 +2,169 @@ package edu.hm.hafner.grading.github;
 
 import org.apache.commons.lang3.StringUtils;
 
+import edu.hm.hafner.coverage.Mutation;
+import edu.hm.hafner.grading.AggregatedScore;
 import edu.hm.hafner.grading.CommentBuilder;
 import edu.hm.hafner.util.FilteredLog;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.kohsuke.github.GHCheckRun.AnnotationLevel;
 import org.kohsuke.github.GHCheckRunBuilder.Annotation;
-import org.kohsuke.github.GHCheckRunBuilder.Output;
 
 /**
  * Creates GitHub annotations for static analysis warnings, for lines with missing coverage, and for lines with
  * survived mutations.
  *
+ * <p>
+ * If the number of annotations is limited by the environment variables {@code MAX_WARNING_ANNOTATIONS} or
+ * {@code MAX_COVERAGE_ANNOTATIONS}, then the annotations are not simply taken in the order of the reports. Instead,
+ * all candidates are ranked and only the best ones are kept in a {@link BoundedSelection}: annotations that touch
+ * changed lines of the pull request come first, followed by annotations with a precise location, and finally the order
+ * of the reports. The selected annotations are created when all candidates have been visited.
+ * </p>
+ *
+ * <p>
+ * If the environment variable {@code DIFF_SCOPED_ANNOTATIONS} is set, then the coverage and mutation annotations are
+ * created by starting from the changed files of the pull request (see {@link ChangedFilesCoverage}): the lines of the
+ * unchanged files are not visited at all, so the cost of these annotations is proportional to the size of the pull
+ * request rather than to the size of the project.
+ * </p>
+ *
+ * <p>
+ * The paths of the reports are mapped to the paths of the changed files by a {@link PathResolver}, so reports that
+ * use absolute paths or paths relative to a module or source folder are matched as well.
+ * </p>
+ *
  * @author Ullrich Hafner
  */
 class GitHubAnnotationsBuilder extends CommentBuilder {
     private static final String GITHUB_WORKSPACE_REL = "/github/workspace/./";
     private static final String GITHUB_WORKSPACE_ABS = "/github/workspace/";
+    private static final int NO_COLUMN = 0;
 
-    private final Output output;
+    private final ChangedLinesIndex changedLines;
+    private final Consumer<Annotation> annotations;
     private final FilteredLog log;
     private final int maxWarningComments;
     private final int maxCoverageComments;
-    private final boolean isLoggingEnabled;
+    private final DebugLog.Channel debug;
+    private final boolean isDiffScoped;
+    private final PathResolver paths;
+    private final BoundedSelection<Candidate> warnings;
+    private final BoundedSelection<Candidate> coverage;
+    private long order;
 
     GitHubAnnotationsBuilder(final Map<String, Set<Integer>> modifiedFilesAndLines,
-            final Output output, final String prefix, final FilteredLog log) {
+            final Consumer<Annotation> annotations, final String prefix, final FilteredLog log) {
+        this(modifiedFilesAndLines, annotations, prefix, log, DebugLog.disabled().channel("annotations"));
+    }
+
+    GitHubAnnotationsBuilder(final Map<String, Set<Integer>> modifiedFilesAndLines,
+            final Consumer<Annotation> annotations, final String prefix, final FilteredLog log,
+            final DebugLog.Channel debug) {
         super(modifiedFilesAndLines, prefix, GITHUB_WORKSPACE_REL, GITHUB_WORKSPACE_ABS);
 
-        this.output = output;
+        this.changedLines = ChangedLinesIndex.of(modifiedFilesAndLines);
+        this.annotations = annotations;
         this.log = log;
 
         maxWarningComments = getIntegerEnvironmentWithDefault("MAX_WARNING_ANNOTATIONS");
         maxCoverageComments = getIntegerEnvironmentWithDefault("MAX_COVERAGE_ANNOTATIONS");
 
-        isLoggingEnabled = StringUtils.isNotBlank(getEnv("LOG_COMMENTS"));
+        this.debug = debug;
+        isDiffScoped = StringUtils.isNotBlank(getEnv("DIFF_SCOPED_ANNOTATIONS"));
+        paths = createPathResolver(changedLines.getFiles(), prefix);
+
+        warnings = new BoundedSelection<>(maxWarningComments, Candidate.RANKING);
+        coverage = new BoundedSelection<>(maxCoverageComments, Candidate.RANKING);
     }
 
+    /**
+     * Creates a resolver that maps the paths of the reports to the changed files, or to workspace-relative paths. The
+     * files of the workspace are used to check that a package path is unique in the whole project.
+     *
+     * @param changedFiles
+     *         the repository-relative paths of the changed files
+     * @param prefix
+     *         the absolute path of the workspace on the runner
+     *
+     * @return the resolver
+     */
+    static PathResolver createPathResolver(final Collection<String> changedFiles, final String prefix) {
+        var workspace = JobEnvironment.resolve(StringUtils.EMPTY);
+        return new PathResolver(changedFiles, PathResolver.ProjectFiles.in(workspace),
+                prefix, GITHUB_WORKSPACE_REL, GITHUB_WORKSPACE_ABS,
+                JobEnvironment.getEnv("GITHUB_WORKSPACE"), JobEnvironment.getRelativeWorkspace(),
+                workspace.toAbsolutePath().toString());
+    }
+
+    /**
+     * Returns no limit, since the limit of the warning annotations is applied by the selection of the best candidates.
+     *
+     * @return {@link Integer#MAX_VALUE}
+     */
     @Override
     protected final int getMaxWarningComments() {
-        return maxWarningComments;
+        return Integer.MAX_VALUE;
     }
 
+    /**
+     * Returns no limit, since the limit of the coverage annotations is applied by the selection of the best candidates.
+     * If the annotations are scoped to the changed files, then the coverage annotations are not created by the parent
+     * class at all.
+     *
+     * @return {@link Integer#MAX_VALUE}, or 0 if the annotations are scoped to the changed files
+     */
     @Override
     protected final int getMaxCoverageComments() {
-        return maxCoverageComments;
+        return isDiffScoped ? 0 : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void createAnnotations(final AggregatedScore score) {
+        super.createAnnotations(score);
+
+        if (isDiffScoped) {
+            createAnnotationsForChangedFiles(score);
+        }
+        createSelectedAnnotations();
+    }
+
+    /**
+     * Creates the coverage and mutation annotations of the changed files of the pull request.
+     *
+     * @param score
+     *         the score with the coverage reports
+     */
+    void createAnnotationsForChangedFiles(final AggregatedScore score) {
+        var coverageOfChangedFiles = ChangedFilesCoverage.of(score, changedLines, paths::resolve);
+        log.logInfo("Creating coverage annotations for %d changed files", coverageOfChangedFiles.getChangedFiles());
+
+        coverageOfChangedFiles.accept(new AnnotationsVisitor());
+    }
+
+    /**
+     * Creates the annotations of all candidates that have been selected so far. This method needs to be called only
+     * if the annotations have been created using {@link #createComment} directly.
+     */
+    void createSelectedAnnotations() {
+        createSelectedAnnotations(warnings, maxWarningComments, "warning");
+        createSelectedAnnotations(coverage, maxCoverageComments, "coverage");
+    }
+
+    private void createSelectedAnnotations(final BoundedSelection<Candidate> selection, final int limit,
+            final String kind) {
+        if (selection.getOffered() > limit) {
+            log.logInfo("Selected the %d most relevant of %d %s annotations",
+                    selection.getSelected(), selection.getOffered(), kind);
+        }
+        selection.drain(Candidate.LOCATION).forEach(this::createAnnotation);
     }
 
     private int getIntegerEnvironmentWithDefault(final String key) {
@@ -69,7 +185,7 @@ class GitHubAnnotationsBuilder extends CommentBuilder {
     }
 
     private String getEnv(final String name) {
-        return StringUtils.defaultString(System.getenv(name));
+        return JobEnvironment.getEnv(name);
     }
 
     @Override
@@ -79,40 +195,128 @@ class GitHubAnnotationsBuilder extends CommentBuilder {
             final String message, final String title,
             final int columnStart, final int columnEnd,
             final String details, final String markDownDetails) {
-        if (!isPartOfChangedFiles(relativePath, lineStart, lineEnd) && commentType != CommentType.WARNING) {
+        var path = paths.resolve(relativePath);
+        var isChanged = changedLines.overlaps(path, lineStart, lineEnd);
+        if (commentType != CommentType.WARNING && !isChanged) {
             return false; // do not create coverage comments for lines that are not part of the diff
         }
-        if (isLoggingEnabled) {
-            log.logInfo("Creating annotation for %s in %s", relativePath, GITHUB_WORKSPACE_REL);
-            log.logInfo("Line start is %d, line end is %d", lineStart, lineEnd);
-            log.logInfo("CommentType is %s", commentType);
-            log.logInfo("Message is %s", message);
-            log.logInfo("Full Message is %s", markDownDetails);
+        var candidate = new Candidate(commentType, path, lineStart, lineEnd, message, title,
+                columnStart, columnEnd, details, markDownDetails, isChanged, order++);
+        var isWarning = commentType == CommentType.WARNING;
+        if ((isWarning ? maxWarningComments : maxCoverageComments) == Integer.MAX_VALUE) {
+            createAnnotation(candidate); // no limit, so there is nothing to select
+        }
+        else {
+            (isWarning ? warnings : coverage).offer(candidate);
+        }
+
+        return true;
+    }
+
+    private void createAnnotation(final Candidate candidate) {
+        if (debug.isEnabled()) {
+            debug.log("Creating annotation for %s in %s", candidate.relativePath(), GITHUB_WORKSPACE_REL);
+            debug.log("Line start is %d, line end is %d", candidate.lineStart(), candidate.lineEnd());
+            debug.log("CommentType is %s", candidate.commentType());
+            debug.log("Message is %s", candidate.message());
+            debug.log("Full Message is %s", candidate.markDownDetails());
         }
 
         // GitHub annotations are 1-based, so we have to adjust the line numbers if some tools annotate the whole file
         int actualLineStart;
         int actualLineEnd;
-        if (lineStart == 0) {
+        if (candidate.lineStart() == 0) {
             actualLineStart = 1;
             actualLineEnd = 1;
         }
         else {
-            actualLineStart = lineStart;
-            actualLineEnd = lineEnd;
+            actualLineStart = candidate.lineStart();
+            actualLineEnd = candidate.lineEnd();
         }
-        var annotation = new Annotation(relativePath,
-                actualLineStart, actualLineEnd, AnnotationLevel.WARNING, message).withTitle(title);
+        var annotation = new Annotation(candidate.relativePath(),
+                actualLineStart, actualLineEnd, AnnotationLevel.WARNING, candidate.message())
+                .withTitle(candidate.title());
 
-        if (lineStart == lineEnd) {
-            annotation.withStartColumn(columnStart).withEndColumn(columnEnd);
+        if (candidate.lineStart() == candidate.lineEnd()) {
+            annotation.withStartColumn(candidate.columnStart()).withEndColumn(candidate.columnEnd());
         }
-        if (StringUtils.isNotBlank(details)) {
-            annotation.withRawDetails(details);
+        if (StringUtils.isNotBlank(candidate.details())) {
+            annotation.withRawDetails(candidate.details());
         }
 
-        output.add(annotation);
+        annotations.accept(annotation);
+    }
 
-        return true;
+    /**
+     * Creates the coverage and mutation annotations of the changed files.
+     */
+    private final class AnnotationsVisitor implements ChangedFilesCoverage.Visitor {
+        @Override
+        public void visitMissedLines(final String path, final int start, final int end) {
+            if (start == end) {
+                createComment(CommentType.NO_COVERAGE, path, start, end,
+                        "Line %d is not covered by tests".formatted(start), "Not covered line",
+                        NO_COLUMN, NO_COLUMN, StringUtils.EMPTY, StringUtils.EMPTY);
+            }
+            else {
+                createComment(CommentType.NO_COVERAGE, path, start, end,
+                        "Lines %d-%d are not covered by tests".formatted(start, end), "Not covered lines",
+                        NO_COLUMN, NO_COLUMN, StringUtils.EMPTY, StringUtils.EMPTY);
+            }
+        }
+
+        @Override
+        public void visitPartiallyCoveredLine(final String path, final int line, final int missedBranches) {
+            var missing = missedBranches == 1 ? "one branch is" : "%d branches are".formatted(missedBranches);
+            createComment(CommentType.PARTIAL_COVERAGE, path, line, line,
+                    "Line %d is only partially covered, %s missing".formatted(line, missing), "Partially covered line",
+                    NO_COLUMN, NO_COLUMN, StringUtils.EMPTY, StringUtils.EMPTY);
+        }
+
+        @Override
+        public void visitSurvivedMutations(final String path, final int line, final List<Mutation> mutations) {
+            var details = new StringBuilder();
+            mutations.forEach(mutation -> details.append("- %s (%s)%n".formatted(
+                    mutation.getDescription(), mutation.getMutator())));
+            if (mutations.size() == 1) {
+                createComment(CommentType.MUTATION_SURVIVED, path, line, line,
+                        "One mutation survived in line %d".formatted(line), "Mutation survived",
+                        NO_COLUMN, NO_COLUMN, details.toString(), details.toString());
+            }
+            else {
+                createComment(CommentType.MUTATION_SURVIVED, path, line, line,
+                        "%d mutations survived in line %d".formatted(mutations.size(), line), "Mutations survived",
+                        NO_COLUMN, NO_COLUMN, details.toString(), details.toString());
+            }
+        }
+    }
+
+    /**
+     * A candidate for an annotation. The candidate just references the parameters of
+     * {@link #createComment(CommentType, String, int, int, String, String, int, int, String, String)}, the actual
+     * annotation is created only if the candidate has been selected.
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private record Candidate(CommentType commentType, String relativePath, int lineStart, int lineEnd,
+            String message, String title, int columnStart, int columnEnd, String details, String markDownDetails,
+            boolean isChanged, long order) {
+        /** Better candidates are greater: changed lines, then precise locations, then the order of the reports. */
+        static final Comparator<Candidate> RANKING = Comparator.comparing(Candidate::isChanged)
+                .thenComparing(Candidate::hasLine)
+                .thenComparing(Candidate::span, Comparator.reverseOrder())
+                .thenComparing(Candidate::order, Comparator.reverseOrder());
+
+        /** The order of the created annotations: by file and line, just like GitHub shows them. */
+        static final Comparator<Candidate> LOCATION = Comparator.comparing(Candidate::relativePath)
+                .thenComparingInt(Candidate::lineStart)
+                .thenComparingLong(Candidate::order);
+
+        boolean hasLine() {
+            return lineStart > 0;
+        }
+
+        int span() {
+            return lineEnd - lineStart;
+        }
     }
 }
@@ -0,0 +1,183 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
+
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.HttpClientGitHubConnector;
+
+/**
+ * The connection to GitHub that is shared by all phases of a run. All requests (REST API client, pull request diff,
+ * and GraphQL queries) are sent with a single {@link HttpClient} that multiplexes concurrent requests over HTTP/2
+ * and keeps the connections alive between requests. So TLS handshakes are performed only once per run, and
+ * parallel requests (e.g., the upload of annotations) reuse the same connection pool.
+ *
+ * <p>
+ * The connection is configured with the following environment variables:
+ * </p>
+ * <ul>
+ *     <li>{@code GITHUB_TOKEN}: the token to authenticate with</li>
+ *     <li>{@code GITHUB_API_URL}: the URL of the REST API (optional)</li>
+ *     <li>{@code GITHUB_GRAPHQL_URL}: the URL of the GraphQL API (optional)</li>
+ *     <li>{@code HTTP_CACHE}: the folder of the {@link HttpResponseCache} (optional)</li>
+ *     <li>{@code CONNECT_TIMEOUT}: the timeout in seconds to establish a connection (optional)</li>
+ *     <li>{@code REQUEST_TIMEOUT}: the timeout in seconds of a request that downloads the diff or queries the GraphQL
+ *     API (optional)</li>
+ * </ul>
+ */
+final class GitHubConnection {
+    private static final int DEFAULT_CONNECT_TIMEOUT = 10;
+    private static final int DEFAULT_REQUEST_TIMEOUT = 120;
+
+    private final String token;
+    private final String apiUrl;
+    private final String graphQlUrl;
+    private final Duration requestTimeout;
+    private final HttpResponseCache responseCache;
+    private final HttpClient httpClient;
+    private final GitHubRequestScheduler scheduler = new GitHubRequestScheduler();
+    private final PerformanceReport performance;
+
+    private GitHub gitHub;
+
+    /**
+     * Creates a connection that is configured by the environment variables of the run.
+     *
+     * @return the connection
+     */
+    static GitHubConnection fromEnvironment() {
+        return fromEnvironment(PerformanceReport.fromEnvironment());
+    }
+
+    /**
+     * Creates a connection that is configured by the environment variables of the run.
+     *
+     * @param performance
+     *         the report that records the durations of all requests
+     *
+     * @return the connection
+     */
+    static GitHubConnection fromEnvironment(final PerformanceReport performance) {
+        var connectTimeout = Duration.ofSeconds(getSeconds("CONNECT_TIMEOUT", DEFAULT_CONNECT_TIMEOUT));
+        var httpClient = HttpClient.newBuilder()
+                .version(Version.HTTP_2)
+                .followRedirects(Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+
+        return new GitHubConnection(getEnv("GITHUB_TOKEN"), getEnv("GITHUB_API_URL"), getEnv("GITHUB_GRAPHQL_URL"),
+                Duration.ofSeconds(getSeconds("REQUEST_TIMEOUT", DEFAULT_REQUEST_TIMEOUT)),
+                HttpResponseCache.create(getEnv("HTTP_CACHE")), httpClient, performance);
+    }
+
+    GitHubConnection(final String token, final String apiUrl, final String graphQlUrl, final Duration requestTimeout,
+            final HttpResponseCache responseCache, final HttpClient httpClient, final PerformanceReport performance) {
+        this.token = token;
+        this.apiUrl = apiUrl;
+        this.graphQlUrl = graphQlUrl;
+        this.requestTimeout = requestTimeout;
+        this.responseCache = responseCache;
+        this.httpClient = httpClient;
+        this.performance = performance;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    String getApiUrl() {
+        return apiUrl;
+    }
+
+    Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    GitHubRequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    PerformanceReport getPerformanceReport() {
+        return performance;
+    }
+
+    /**
+     * Returns the client of the GitHub REST API. The client is created on the first call and reused afterward. Rate
+     * limit errors of requests that are sent by the {@link GitHubRequestScheduler} are reported to the scheduler that
+     * retries the requests depending on their priority. All other requests wait until the rate limit has been reset,
+     * like with the default handlers of the client.
+     *
+     * @return the client
+     * @throws IOException
+     *         if the client could not be created
+     */
+    synchronized GitHub getGitHub() throws IOException {
+        if (gitHub == null) {
+            var builder = new GitHubBuilder().withOAuthToken(token)
+                    .withConnector(responseCache.decorate(
+                            scheduler.observe(performance.observe(new HttpClientGitHubConnector(httpClient)))))
+                    .withRateLimitHandler(scheduler.getRateLimitHandler())
+                    .withAbuseLimitHandler(scheduler.getAbuseLimitHandler());
+            if (StringUtils.isNotBlank(apiUrl)) {
+                builder.withEndpoint(apiUrl);
+            }
+            gitHub = builder.build();
+        }
+        return gitHub;
+    }
+
+    /**
+     * Returns a client of the GitHub GraphQL API.
+     *
+     * @return the client
+     */
+    GitHubGraphQlClient getGraphQlClient() {
+        return new GitHubGraphQlClient(httpClient, GitHubGraphQlClient.resolveEndpoint(graphQlUrl, apiUrl), token,
+                requestTimeout, performance);
+    }
+
+    /**
+     * Logs the statistics of this connection.
+     *
+     * @param log
+     *         the logger
+     */
+    void logStatistics(final FilteredLog log) {
+        responseCache.logStatistics(log);
+        scheduler.logStatistics(log);
+    }
+
+    private static long getSeconds(final String key, final int defaultValue) {
+        var value = getEnv(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            var seconds = Long.parseLong(value.trim());
+            return seconds > 0 ? seconds : defaultValue;
+        }
+        catch (NumberFormatException _) {
+            return defaultValue;
+        }
+    }
+
+    private static String getEnv(final String key) {
+        return JobEnvironment.getEnv(key);
+    }
+}
@@ -6,15 +6,20 @@ import edu.hm.hafner.util.FilteredLog;
 import edu.hm.hafner.util.VisibleForTesting;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import org.kohsuke.github.GHPullRequestFileDetail;
-import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
 
 /**
  * Provides changed lines for a GitHub pull request so patch coverage can be computed.
@@ -24,21 +29,134 @@ import org.kohsuke.github.GitHubBuilder;
  * per-file 1-based line numbers for the new file (added or replaced lines only). Renamed files are keyed by the new
  * filename.
  * </p>
+ *
+ * <p>
+ * Alternatively, the whole diff of the PR can be fetched with a single request using the diff media type. The
+ * response is streamed through the {@link GitDiffReader}, so the diff is never kept in memory as a whole.
+ * </p>
+ *
+ * <p>
+ * All requests are sent with the shared {@link GitHubConnection} of the run. If a {@link HttpResponseCache} is
+ * enabled, then all requests are sent as conditional requests, so re-runs for the same pull request do not download
+ * the same data again.
+ * </p>
  */
 class GitHubDiffProvider {
-    private static final Pattern HUNK_REGEXP = Pattern.compile(
-            "^@@ -(?<oldStart>\\d+)(?:,\\d+)? \\+(?<newStart>\\d+)(?:,\\d+)? @@.*$");
     private static final String DIFF_REMOVED = "removed";
+    private static final String DEFAULT_API_URL = "https://api.github.com";
+    private static final String DIFF_MEDIA_TYPE = "application/vnd.github.diff";
+    private static final String API_VERSION = "2022-11-28";
+    private static final int HTTP_OK = 200;
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private final GitHubConnection connection;
+    private final DebugLog debugLog;
+
+    GitHubDiffProvider(final GitHubConnection connection) {
+        this(connection, DebugLog.disabled());
+    }
+
+    GitHubDiffProvider(final GitHubConnection connection, final DebugLog debugLog) {
+        this.connection = connection;
+        this.debugLog = debugLog;
+    }
+
+    /**
+     * Loads changed lines per file from a GitHub PR using a single request that fetches the whole diff of the PR.
+     * If GitHub does not provide the diff (e.g., because the diff is too large) then the changed lines are loaded
+     * using the paginated list of PR files, see {@link #loadChangedLines(String, FilteredLog, int)}.
+     *
+     * @param repository
+     *         the {@code owner/repo}
+     * @param log
+     *         logger
+     * @param prNumber
+     *         the pull request number
+     *
+     * @return a mapping of a repository-relative file path to a set of 1-based changed line numbers
+     */
+    Map<String, Set<Integer>> loadChangedLinesFromDiff(final String repository, final FilteredLog log,
+            final int prNumber) {
+        try (var debug = debugLog.channel("diff")) {
+            var changedLines = fetchPullRequestDiff(repository, log, prNumber);
+            if (changedLines.isPresent()) {
+                log.logInfo("Loaded diff of PR#%d from GitHub: %d changed files", prNumber, changedLines.get().size());
+                if (debug.isEnabled()) {
+                    changedLines.get().forEach((path, lines) ->
+                            debug.log("File %s has %d changed lines: %s", path, lines.size(), lines));
+                }
+                return changedLines.get();
+            }
+        }
+        catch (IOException exception) {
+            log.logInfo("Failed to load diff of PR#%d from GitHub: %s", prNumber, exception.getMessage());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.logException(exception, "Interrupted while loading diff of PR#%d from GitHub", prNumber);
+
+            return Map.of();
+        }
+
+        log.logInfo("Falling back to the list of changed files of PR#%d", prNumber);
+        return loadChangedLines(repository, log, prNumber);
+    }
+
+    private Optional<Map<String, Set<Integer>>> fetchPullRequestDiff(final String repository, final FilteredLog log,
+            final int prNumber) throws IOException, InterruptedException {
+        var baseUrl = StringUtils.removeEnd(StringUtils.defaultIfBlank(connection.getApiUrl(), DEFAULT_API_URL), "/");
+        var url = URI.create("%s/repos/%s/pulls/%d".formatted(baseUrl, repository, prNumber));
+        var request = HttpRequest.newBuilder(url)
+                .header("Accept", DIFF_MEDIA_TYPE)
+                .header("X-GitHub-Api-Version", API_VERSION)
+                .timeout(connection.getRequestTimeout());
+        if (!isBlank(connection.getToken())) {
+            request.header("Authorization", "Bearer " + connection.getToken());
+        }
+        var responseCache = connection.getResponseCache();
+        var cached = responseCache.lookup(url.toString(), DIFF_MEDIA_TYPE);
+        cached.ifPresent(entry -> request.header("If-None-Match", entry.etag()));
+
+        var start = System.nanoTime();
+        var response = connection.getHttpClient().send(request.GET().build(), BodyHandlers.ofInputStream());
+        try (var body = response.body()) {
+            if (response.statusCode() == HTTP_NOT_MODIFIED && cached.isPresent()) {
+                responseCache.recordHit();
+                log.logInfo("Diff of PR#%d has not been modified, using cached diff", prNumber);
+
+                return Optional.of(readDiff(Files.newInputStream(cached.get().body())));
+            }
+            if (response.statusCode() != HTTP_OK) {
+                log.logInfo("GitHub did not provide the diff of PR#%d (HTTP status %d)", prNumber,
+                        response.statusCode());
+
+                return Optional.empty();
+            }
+            if (responseCache.isEnabled() && response.headers().firstValue("ETag").isPresent()) {
+                var entry = responseCache.store(url.toString(), DIFF_MEDIA_TYPE, response.headers().map(), body);
+
+                return Optional.of(readDiff(Files.newInputStream(entry.body())));
+            }
+            return Optional.of(readDiff(body));
+        }
+        finally {
+            connection.getPerformanceReport().recordCall("GET", url, response.statusCode(),
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private Map<String, Set<Integer>> readDiff(final InputStream diff) throws IOException {
+        try (var reader = new InputStreamReader(diff, StandardCharsets.UTF_8)) {
+            return new GitDiffReader().read(reader);
+        }
+    }
 
     /**
      * Loads changed lines per file from a GitHub PR.
      *
      * @param repository
      *         the {@code owner/repo}
-     * @param token
-     *         the GitHub token
-     * @param apiUrl
-     *         optional alternative API URL
      * @param log
      *         logger
      * @param prNumber
@@ -47,28 +165,25 @@ class GitHubDiffProvider {
      * @return a mapping of a repository-relative file path to a set of 1-based changed line numbers
      */
     @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.CyclomaticComplexity"})
-    Map<String, Set<Integer>> loadChangedLines(final String repository,
-            final String token, final String apiUrl, final FilteredLog log, final int prNumber) {
-        try {
+    Map<String, Set<Integer>> loadChangedLines(final String repository, final FilteredLog log, final int prNumber) {
+        try (var debug = debugLog.channel("diff")) {
             Map<String, Set<Integer>> changedLinesByPath = new HashMap<>();
 
-            var files = connectWithGitHub(token, apiUrl).getRepository(repository)
+            var files = connection.getGitHub().getRepository(repository)
                     .getPullRequest(prNumber)
                     .listFiles();
             log.logInfo("Loaded changed files from GitHub");
 
-            var isLoggingEnabled = StringUtils.isNotBlank(System.getenv("LOG_COMMENTS"));
-
             for (GHPullRequestFileDetail file : files) {
-                if (isLoggingEnabled) {
-                    log.logInfo("Processing file %s with status %s", file.getFilename(), file.getStatus());
+                if (debug.isEnabled()) {
+                    debug.log("Processing file %s with status %s", file.getFilename(), file.getStatus());
                 }
                 var status = safeLower(file.getStatus());
                 var newPath = normalize(file.getFilename()); // use new filename for renames
 
                 if (DIFF_REMOVED.equals(status)) {
-                    if (isLoggingEnabled) {
-                        log.logInfo("Skipping removed file %s", newPath);
+                    if (debug.isEnabled()) {
+                        debug.log("Skipping removed file %s", newPath);
                     }
 
                     continue;
@@ -76,16 +191,16 @@ class GitHubDiffProvider {
 
                 var patch = file.getPatch();
                 if (StringUtils.isBlank(patch)) {
-                    if (isLoggingEnabled) {
-                        log.logInfo("No patch available for file %s, skipping", newPath);
+                    if (debug.isEnabled()) {
+                        debug.log("No patch available for file %s, skipping", newPath);
                     }
 
                     continue;
                 }
 
-                Set<Integer> lines = parseUnifiedDiffForNewFileAddedLines(patch);
-                if (isLoggingEnabled) {
-                    log.logInfo("File %s has %d changed lines: %s", newPath, lines.size(), lines);
+                var lines = parseUnifiedDiffForNewFileAddedLines(patch);
+                if (debug.isEnabled()) {
+                    debug.log("File %s has %d changed lines: %s", newPath, lines.size(), lines);
                 }
                 if (!lines.isEmpty()) {
                     changedLinesByPath.put(newPath, lines);
@@ -101,14 +216,6 @@ class GitHubDiffProvider {
         }
     }
 
-    private GitHub connectWithGitHub(final String token, final String apiUrl) throws IOException {
-        var builder = new GitHubBuilder().withOAuthToken(token);
-        if (!isBlank(apiUrl)) {
-            builder.withEndpoint(apiUrl);
-        }
-        return builder.build();
-    }
-
     /**
      * Parses a unified diff text for one file and returns the 1-based line numbers in the new file that were added or
      * replaced by the patch. Only "+" lines inside hunks are considered; deletions ("-") and hunk context are not
@@ -118,63 +225,20 @@ class GitHubDiffProvider {
      *         the unified diff text
      *
      * @return the set of 1-based line numbers in the new file that were added or replaced
+     * @see UnifiedDiffScanner
      */
     @VisibleForTesting
-    @SuppressWarnings("StringSplitter")
-    Set<Integer> parseUnifiedDiffForNewFileAddedLines(final String patch) {
-        Set<Integer> newFileChangedLines = new HashSet<>();
-        int newLinePointer = -1;
-
-        var lines = patch.split("\n");
-        for (String raw : lines) {
-            var line = stripTrailingCarriageReturn(raw);
-            if (line.startsWith("@@")) {
-                var matcher = HUNK_REGEXP.matcher(line);
-                if (matcher.matches()) {
-                    newLinePointer = Integer.parseInt(matcher.group("newStart"));
-                }
-                continue;
-            }
-
-            if (newLinePointer < 0) { // before first hunk header
-                continue;
-            }
-
-            if (line.isEmpty()) {
-                continue;
-            }
-
-            char marker = line.charAt(0);
-            switch (marker) {
-                case '+' -> {
-                    // Added or replaced line in a new file
-                    newFileChangedLines.add(newLinePointer);
-                    newLinePointer++;
-                }
-                case ' ' -> {
-                    // context line, advances the new file pointer
-                    newLinePointer++;
-                }
-                default -> {
-                    // Removed line or other unknown line, does not advance the new file pointer
-                }
-            }
-        }
+    static LineRanges parseUnifiedDiffForNewFileAddedLines(final String patch) {
+        var newFileChangedLines = new LineRanges.Builder();
+        new UnifiedDiffScanner(newFileChangedLines::add).scan(patch);
 
-        return newFileChangedLines;
+        return newFileChangedLines.build();
     }
 
     private String normalize(final String path) {
         return path == null ? "" : path.replace('\\', '/');
     }
 
-    private String stripTrailingCarriageReturn(final String s) {
-        if (s != null && !s.isEmpty() && s.charAt(s.length() - 1) == '\r') {
-            return s.substring(0, s.length() - 1);
-        }
-        return s;
-    }
-
     private boolean isBlank(final String s) {
         return s == null || s.isBlank();
     }
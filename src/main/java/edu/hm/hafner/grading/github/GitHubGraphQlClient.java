@@ -0,0 +1,141 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+
+import org.kohsuke.github.HttpException;
+
+/**
+ * Minimal client for the GitHub GraphQL API. The GitHub API client library supports the REST API only, so queries
+ * that need several REST round trips are sent with this client instead.
+ */
+class GitHubGraphQlClient {
+    private static final String DEFAULT_ENDPOINT = "https://api.github.com/graphql";
+    private static final String ENTERPRISE_REST_PATH = "/api/v3";
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final String RATE_LIMITED = "RATE_LIMITED";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String token;
+    private final Duration requestTimeout;
+    private final PerformanceReport performance;
+
+    /**
+     * Returns the endpoint of the GraphQL API. GitHub Actions provides the endpoint in the environment variable
+     * {@code GITHUB_GRAPHQL_URL}. If this variable is not set, then the endpoint is derived from the REST API URL.
+     *
+     * @param graphQlUrl
+     *         the URL of the GraphQL API, might be blank
+     * @param apiUrl
+     *         the URL of the REST API, might be blank
+     *
+     * @return the endpoint of the GraphQL API
+     */
+    static String resolveEndpoint(final String graphQlUrl, final String apiUrl) {
+        if (StringUtils.isNotBlank(graphQlUrl)) {
+            return graphQlUrl;
+        }
+        if (StringUtils.isBlank(apiUrl)) {
+            return DEFAULT_ENDPOINT;
+        }
+        var restUrl = StringUtils.removeEnd(apiUrl, "/");
+        if (restUrl.endsWith(ENTERPRISE_REST_PATH)) { // GitHub Enterprise Server
+            return StringUtils.removeEnd(restUrl, ENTERPRISE_REST_PATH) + "/api/graphql";
+        }
+        return restUrl + "/graphql";
+    }
+
+    GitHubGraphQlClient(final HttpClient httpClient, final String endpoint, final String token,
+            final Duration requestTimeout) {
+        this(httpClient, endpoint, token, requestTimeout, new PerformanceReport(false, 0));
+    }
+
+    GitHubGraphQlClient(final HttpClient httpClient, final String endpoint, final String token,
+            final Duration requestTimeout, final PerformanceReport performance) {
+        this.httpClient = httpClient;
+        this.endpoint = URI.create(endpoint);
+        this.token = token;
+        this.requestTimeout = requestTimeout;
+        this.performance = performance;
+    }
+
+    /**
+     * Executes the specified query.
+     *
+     * @param query
+     *         the GraphQL query
+     * @param variables
+     *         the variables of the query
+     *
+     * @return the {@code data} element of the response
+     * @throws IOException
+     *         if the request failed or the response contains errors, failed requests and rate limit errors are
+     *         reported as {@link HttpException} with the HTTP status, so the {@link GitHubRequestScheduler} can retry
+     *         them
+     */
+    JsonNode execute(final String query, final Map<String, Object> variables) throws IOException {
+        var body = mapper.writeValueAsBytes(Map.of("query", query, "variables", variables));
+        var request = HttpRequest.newBuilder(endpoint)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(requestTimeout)
+                .POST(BodyPublishers.ofByteArray(body))
+                .build();
+        var start = System.nanoTime();
+        var status = 0;
+        try {
+            var response = httpClient.send(request, BodyHandlers.ofInputStream());
+            status = response.statusCode();
+            try (var content = response.body()) {
+                if (response.statusCode() != HTTP_OK) {
+                    var message = readMessage(content);
+                    throw new HttpException("GraphQL request failed with HTTP status %d: %s".formatted(
+                            response.statusCode(), message), response.statusCode(), message, endpoint.toString());
+                }
+                var result = mapper.readTree(content);
+                var errors = result.path("errors");
+                if (errors.isArray() && !errors.isEmpty()) {
+                    var message = "GraphQL request failed: " + errors.get(0).path("message").asText();
+                    if (RATE_LIMITED.equals(errors.get(0).path("type").asText())) {
+                        throw new HttpException(message, HTTP_FORBIDDEN, RATE_LIMITED, endpoint.toString());
+                    }
+                    throw new IOException(message);
+                }
+                return result.path("data");
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while sending GraphQL request: " + exception.getMessage());
+        }
+        finally {
+            performance.recordCall("POST", endpoint, status, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private String readMessage(final InputStream content) {
+        try {
+            return mapper.readTree(content).path("message").asText();
+        }
+        catch (IOException _) {
+            return StringUtils.EMPTY; // the body of an error is optional
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+/**
+ * Schedules the write requests of a run with respect to the rate limits of GitHub. The rate limit headers of all
+ * responses are observed (see {@link #observe(GitHubConnector)}). Each request has a {@link Priority}: if the
+ * remaining quota drops below the reserve of a priority, then requests of this priority are dropped, so the quota is
+ * left for the more important requests. Requests that hit the primary or secondary rate limit are retried after the
+ * time GitHub asks for ({@code Retry-After} or {@code X-RateLimit-Reset}) or after an exponential backoff with
+ * jitter, as long as the wait budget of the priority is not exhausted.
+ *
+ * <p>
+ * The rate limit handlers of the GitHub client (see {@link #getRateLimitHandler()} and
+ * {@link #getAbuseLimitHandler()}) fail immediately for the requests of this scheduler, so that the scheduler decides
+ * whether to retry. All other requests of the client (e.g., reading the repository or the changed files) keep the
+ * default handlers of the client that wait until the rate limit has been reset.
+ * </p>
+ */
+class GitHubRequestScheduler {
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(60);
+    private static final long UNKNOWN = -1;
+
+    /**
+     * The priority of a request. Requests with a lower priority keep a larger part of the quota in reserve and give up
+     * earlier.
+     */
+    enum Priority {
+        /** Creating the check run: the result of the run. */
+        CHECK_RUN(0, 6, Duration.ofMinutes(10)),
+        /** Creating, updating, or deleting the pull request comment. */
+        COMMENT(20, 4, Duration.ofMinutes(3)),
+        /** Uploading a batch of annotations. */
+        ANNOTATIONS(100, 2, Duration.ofSeconds(30));
+
+        private final int reserve;
+        private final int maxAttempts;
+        private final Duration maxWait;
+
+        Priority(final int reserve, final int maxAttempts, final Duration maxWait) {
+            this.reserve = reserve;
+            this.maxAttempts = maxAttempts;
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * A request to GitHub.
+     *
+     * @param <T>
+     *         the type of the result
+     */
+    @FunctionalInterface
+    interface Request<T> {
+        /**
+         * Sends the request.
+         *
+         * @return the result of the request
+         * @throws IOException
+         *         if the request failed
+         */
+        T send() throws IOException;
+    }
+
+    /**
+     * Waits for the specified duration.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        /**
+         * Waits for the specified duration.
+         *
+         * @param duration
+         *         the duration to wait
+         *
+         * @throws InterruptedException
+         *         if the thread has been interrupted
+         */
+        void sleep(Duration duration) throws InterruptedException;
+    }
+
+    private final Sleeper sleeper;
+    private final ThreadLocal<Priority> scheduled = new ThreadLocal<>();
+
+    private final AtomicLong remaining = new AtomicLong(UNKNOWN);
+    private final AtomicLong resetEpochSecond = new AtomicLong(UNKNOWN);
+    private final AtomicLong retryAfterSeconds = new AtomicLong(UNKNOWN);
+
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicLong waitedMillis = new AtomicLong();
+
+    GitHubRequestScheduler() {
+        this(duration -> Thread.sleep(duration));
+    }
+
+    GitHubRequestScheduler(final Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Returns a connector that records the rate limit headers of all responses of the specified connector.
+     *
+     * @param connector
+     *         the connector that actually sends the requests
+     *
+     * @return the observing connector
+     */
+    GitHubConnector observe(final GitHubConnector connector) {
+        return request -> {
+            var response = connector.send(request);
+            update(response);
+            return response;
+        };
+    }
+
+    private void update(final GitHubConnectorResponse response) {
+        parse(response.header("X-RateLimit-Remaining")).ifPresent(remaining::set);
+        parse(response.header("X-RateLimit-Reset")).ifPresent(resetEpochSecond::set);
+        parse(response.header("Retry-After")).ifPresent(retryAfterSeconds::set);
+    }
+
+    private Optional<Long> parse(final String value) {
+        if (StringUtils.isBlank(value)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(value.trim()));
+        }
+        catch (NumberFormatException _) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Sends the specified request with the given priority.
+     *
+     * @param priority
+     *         the priority of the request
+     * @param request
+     *         the request to send
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the request, or an empty optional if the request has been dropped because the remaining
+     *         quota is reserved for requests with a higher priority
+     * @throws IOException
+     *         if the request failed
+     */
+    <T> Optional<T> execute(final Priority priority, final Request<T> request) throws IOException {
+        long waited = 0;
+        for (int attempt = 1; ; attempt++) {
+            var quota = remaining.get();
+            if (quota != UNKNOWN && quota <= priority.reserve && priority != Priority.CHECK_RUN) {
+                dropped.incrementAndGet();
+
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(send(priority, request));
+            }
+            catch (HttpException exception) {
+                if (!isRateLimited(exception) || attempt >= priority.maxAttempts) {
+                    throw exception;
+                }
+                var delay = computeDelay(attempt);
+                if (waited + delay.toMillis() > priority.maxWait.toMillis()) {
+                    throw exception;
+                }
+                waitBeforeRetry(delay);
+                waited += delay.toMillis();
+            }
+        }
+    }
+
+    private <T> T send(final Priority priority, final Request<T> request) throws IOException {
+        var previous = scheduled.get();
+        scheduled.set(priority);
+        try {
+            return request.send();
+        }
+        finally {
+            scheduled.set(previous);
+        }
+    }
+
+    /**
+     * Returns whether the current thread sends a request of this scheduler.
+     *
+     * @return {@code true} if the current thread sends a request of this scheduler, {@code false} otherwise
+     */
+    boolean isScheduled() {
+        return scheduled.get() != null;
+    }
+
+    /**
+     * Returns the rate limit handler for the GitHub client: requests of this scheduler fail immediately, all other
+     * requests wait until the rate limit has been reset.
+     *
+     * @return the rate limit handler
+     */
+    GitHubRateLimitHandler getRateLimitHandler() {
+        return new GitHubRateLimitHandler() {
+            @Override
+            public void onError(final GitHubConnectorResponse response) throws IOException {
+                (isScheduled() ? GitHubRateLimitHandler.FAIL : GitHubRateLimitHandler.WAIT).onError(response);
+            }
+        };
+    }
+
+    /**
+     * Returns the abuse limit (secondary rate limit) handler for the GitHub client: requests of this scheduler fail
+     * immediately, all other requests wait for the time GitHub asks for.
+     *
+     * @return the abuse limit handler
+     */
+    GitHubAbuseLimitHandler getAbuseLimitHandler() {
+        return new GitHubAbuseLimitHandler() {
+            @Override
+            public void onError(final GitHubConnectorResponse response) throws IOException {
+                (isScheduled() ? GitHubAbuseLimitHandler.FAIL : GitHubAbuseLimitHandler.WAIT).onError(response);
+            }
+        };
+    }
+
+    private boolean isRateLimited(final HttpException exception) {
+        var code = exception.getResponseCode();
+        if (code == HTTP_TOO_MANY_REQUESTS) {
+            return true;
+        }
+        return code == HTTP_FORBIDDEN
+                && (remaining.get() == 0 || retryAfterSeconds.get() != UNKNOWN
+                || Strings.CI.containsAny(exception.getMessage(), "rate limit", "abuse"));
+    }
+
+    private Duration computeDelay(final int attempt) {
+        var retryAfter = retryAfterSeconds.getAndSet(UNKNOWN);
+        if (retryAfter > 0) {
+            return Duration.ofSeconds(retryAfter);
+        }
+        if (remaining.get() == 0 && resetEpochSecond.get() != UNKNOWN) {
+            var untilReset = Duration.between(Instant.now(), Instant.ofEpochSecond(resetEpochSecond.get()));
+            if (!untilReset.isNegative()) {
+                return untilReset.plusSeconds(1);
+            }
+        }
+        var backoff = INITIAL_BACKOFF.toMillis() << Math.min(attempt - 1, 10);
+        var capped = Math.min(backoff, MAX_BACKOFF.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1)); // jitter
+    }
+
+    private void waitBeforeRetry(final Duration delay) throws InterruptedIOException {
+        retries.incrementAndGet();
+        try {
+            sleeper.sleep(delay);
+            waitedMillis.addAndGet(delay.toMillis());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit: "
+                    + exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of requests that have been dropped to save the remaining quota.
+     *
+     * @return the number of dropped requests
+     */
+    int getDroppedRequests() {
+        return dropped.get();
+    }
+
+    /**
+     * Logs the statistics of this scheduler.
+     *
+     * @param log
+     *         the logger
+     */
+    void logStatistics(final FilteredLog log) {
+        if (retries.get() > 0 || dropped.get() > 0) {
+            log.logInfo("GitHub rate limits: %d requests retried (waited %d s), %d requests dropped",
+                    retries.get(), Duration.ofMillis(waitedMillis.get()).toSeconds(), dropped.get());
+        }
+        if (remaining.get() != UNKNOWN) {
+            log.logInfo("GitHub rate limit: %d requests remaining", remaining.get());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Finds the comment of a previous run of the quality monitor in a pull request using the GraphQL API. The comments are
+ * scanned newest-first, 100 comments per request, and the scan stops at the first comment that contains the marker.
+ * Since the previous comment is typically one of the latest comments, a single request is sufficient in most cases,
+ * even for pull requests with thousands of comments. The found comment is deleted or updated with GraphQL mutations
+ * as well.
+ */
+class GraphQlCommentFinder {
+    private static final int PAGE_SIZE = 100;
+
+    private static final String FIND_COMMENTS = """
+            query($owner: String!, $name: String!, $number: Int!, $count: Int!, $cursor: String) {
+              repository(owner: $owner, name: $name) {
+                pullRequest(number: $number) {
+                  comments(last: $count, before: $cursor) {
+                    pageInfo { hasPreviousPage startCursor }
+                    nodes { id body }
+                  }
+                }
+              }
+            }
+            """;
+    private static final String DELETE_COMMENT = """
+            mutation($id: ID!) {
+              deleteIssueComment(input: {id: $id}) { clientMutationId }
+            }
+            """;
+    private static final String UPDATE_COMMENT = """
+            mutation($id: ID!, $body: String!) {
+              updateIssueComment(input: {id: $id, body: $body}) { issueComment { id } }
+            }
+            """;
+
+    private final GitHubGraphQlClient client;
+
+    GraphQlCommentFinder(final GitHubGraphQlClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Finds the newest comment in the specified pull request that contains the marker.
+     *
+     * @param repository
+     *         the {@code owner/repo}
+     * @param prNumber
+     *         the pull request number
+     * @param marker
+     *         the marker that identifies the comment
+     *
+     * @return the comment, or an empty optional if no comment contains the marker
+     * @throws IOException
+     *         if the GraphQL API could not be queried
+     */
+    Optional<PreviousComment> find(final String repository, final int prNumber, final String marker)
+            throws IOException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("owner", StringUtils.substringBefore(repository, "/"));
+        variables.put("name", StringUtils.substringAfter(repository, "/"));
+        variables.put("number", prNumber);
+        variables.put("count", PAGE_SIZE);
+
+        while (true) {
+            var comments = client.execute(FIND_COMMENTS, variables)
+                    .path("repository").path("pullRequest").path("comments");
+            if (comments.isMissingNode() || comments.isNull()) {
+                throw new IOException("Pull request #%d not found in %s".formatted(prNumber, repository));
+            }
+
+            var nodes = comments.path("nodes");
+            for (int i = nodes.size() - 1; i >= 0; i--) { // pages are in chronological order
+                var node = nodes.get(i);
+                if (node.path("body").asText().contains(marker)) {
+                    return Optional.of(new GraphQlComment(node.path("id").asText()));
+                }
+            }
+
+            var pageInfo = comments.path("pageInfo");
+            if (!pageInfo.path("hasPreviousPage").asBoolean()) {
+                return Optional.empty();
+            }
+            variables.put("cursor", pageInfo.path("startCursor").asText());
+        }
+    }
+
+    private final class GraphQlComment implements PreviousComment {
+        private final String id;
+
+        GraphQlComment(final String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void delete() throws IOException {
+            client.execute(DELETE_COMMENT, Map.of("id", id));
+        }
+
+        @Override
+        public void update(final String body) throws IOException {
+            client.execute(UPDATE_COMMENT, Map.of("id", id, "body", body));
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.github.connector.GitHubConnector;
+
+/**
+ * Persistent cache of GitHub API responses that is validated with conditional requests. For each cached response the
+ * entity tag ({@code ETag}), the response headers, and the body are stored in a folder. Subsequent requests for the
+ * same URL send the entity tag in an {@code If-None-Match} header: GitHub answers with {@code 304 Not Modified} if
+ * the resource is unchanged, these responses do not count against the primary rate limit. The folder can be kept
+ * between workflow runs using the {@code actions/cache} action.
+ *
+ * <p>
+ * Responses are keyed by the URL and the requested media type. Entries are written to a temporary file first and
+ * moved afterward, so concurrent requests never see partially written entries.
+ * </p>
+ */
+final class HttpResponseCache {
+    private static final HttpResponseCache DISABLED = new HttpResponseCache(Path.of(""), false);
+    private static final String ETAG = "ETag";
+    private static final String BODY_SUFFIX = ".body";
+    private static final String HEADERS_SUFFIX = ".headers";
+    private static final char SEPARATOR = '\t';
+    private static final List<String> TRANSIENT_HEADERS = List.of("Content-Encoding", "Content-Length",
+            "Transfer-Encoding");
+
+    private final Path directory;
+    private final boolean enabled;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates a cache that stores the responses in the specified folder. If the folder is blank, then the returned
+     * cache is disabled.
+     *
+     * @param directory
+     *         the folder to store the responses in
+     *
+     * @return the cache
+     */
+    static HttpResponseCache create(final String directory) {
+        if (StringUtils.isBlank(directory)) {
+            return DISABLED;
+        }
+        return new HttpResponseCache(JobEnvironment.resolve(directory), true);
+    }
+
+    private HttpResponseCache(final Path directory, final boolean enabled) {
+        this.directory = directory;
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a connector for the GitHub API client that uses this cache for all cacheable requests. If this cache is
+     * disabled, then the specified connector is returned.
+     *
+     * @param connector
+     *         the connector that actually sends the requests
+     *
+     * @return the connector to use
+     */
+    GitHubConnector decorate(final GitHubConnector connector) {
+        if (enabled) {
+            return new CachingGitHubConnector(connector, this);
+        }
+        return connector;
+    }
+
+    /**
+     * Returns the cached response for the specified URL and media type.
+     *
+     * @param url
+     *         the URL of the request
+     * @param mediaType
+     *         the requested media type (value of the {@code Accept} header)
+     *
+     * @return the cached response, or an empty optional if there is no cached response
+     */
+    Optional<Entry> lookup(final String url, final String mediaType) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        var key = createKey(url, mediaType);
+        var body = directory.resolve(key + BODY_SUFFIX);
+        var headers = directory.resolve(key + HEADERS_SUFFIX);
+        if (!Files.isRegularFile(body) || !Files.isRegularFile(headers)) {
+            return Optional.empty();
+        }
+        try {
+            var allHeaders = readHeaders(headers);
+            var etag = getFirst(allHeaders, ETAG);
+            if (etag.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(etag.get(), allHeaders, body));
+        }
+        catch (IOException _) {
+            return Optional.empty(); // a broken entry will be replaced by the next response
+        }
+    }
+
+    /**
+     * Stores the response for the specified URL and media type. Only responses with an {@code ETag} header are
+     * stored.
+     *
+     * @param url
+     *         the URL of the request
+     * @param mediaType
+     *         the requested media type (value of the {@code Accept} header)
+     * @param headers
+     *         the headers of the response
+     * @param body
+     *         the decoded body of the response
+     *
+     * @return the stored entry
+     * @throws IOException
+     *         if the response could not be stored
+     */
+    Entry store(final String url, final String mediaType, final Map<String, List<String>> headers,
+            final InputStream body) throws IOException {
+        var allHeaders = copyHeaders(headers);
+        var etag = getFirst(allHeaders, ETAG)
+                .orElseThrow(() -> new IOException("Response of %s has no ETag".formatted(url)));
+
+        Files.createDirectories(directory);
+        var key = createKey(url, mediaType);
+        var bodyFile = directory.resolve(key + BODY_SUFFIX);
+        var headersFile = directory.resolve(key + HEADERS_SUFFIX);
+
+        var temporaryBody = Files.createTempFile(directory, key, BODY_SUFFIX);
+        var temporaryHeaders = Files.createTempFile(directory, key, HEADERS_SUFFIX);
+        try {
+            Files.copy(body, temporaryBody, StandardCopyOption.REPLACE_EXISTING);
+            writeHeaders(temporaryHeaders, allHeaders);
+
+            Files.move(temporaryBody, bodyFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryHeaders, headersFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporaryBody);
+            Files.deleteIfExists(temporaryHeaders);
+        }
+        misses.incrementAndGet();
+
+        return new Entry(etag, allHeaders, bodyFile);
+    }
+
+    /**
+     * Records that a conditional request has been answered with {@code 304 Not Modified}.
+     */
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Logs the number of responses that have been served from the cache.
+     *
+     * @param log
+     *         the logger
+     */
+    void logStatistics(final FilteredLog log) {
+        if (enabled) {
+            log.logInfo("HTTP cache in '%s': %d responses were not modified, %d responses have been stored",
+                    directory, hits.get(), misses.get());
+        }
+    }
+
+    /**
+     * Merges the headers of a cached response with the headers of a {@code 304 Not Modified} response. The new headers
+     * (e.g., the rate limit headers) replace the cached ones, the length and encoding of the cached body are retained.
+     *
+     * @param cached
+     *         the headers of the cached response
+     * @param notModified
+     *         the headers of the {@code 304} response
+     *
+     * @return the merged headers
+     */
+    static Map<String, List<String>> mergeHeaders(final Map<String, List<String>> cached,
+            final Map<String, List<String>> notModified) {
+        var merged = copyHeaders(cached);
+        merged.putAll(copyHeaders(notModified));
+        return merged;
+    }
+
+    private static Map<String, List<String>> copyHeaders(final Map<String, List<String>> headers) {
+        Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.forEach((name, values) -> {
+            if (name != null && values != null && TRANSIENT_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    private static Optional<String> getFirst(final Map<String, List<String>> headers, final String name) {
+        var values = headers.get(name);
+        if (values == null || values.isEmpty() || StringUtils.isBlank(values.getFirst())) {
+            return Optional.empty();
+        }
+        return Optional.of(values.getFirst());
+    }
+
+    private Map<String, List<String>> readHeaders(final Path file) throws IOException {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            var separator = line.indexOf(SEPARATOR);
+            if (separator > 0) {
+                headers.computeIfAbsent(line.substring(0, separator), _ -> new ArrayList<>())
+                        .add(line.substring(separator + 1));
+            }
+        }
+        return headers;
+    }
+
+    private void writeHeaders(final Path file, final Map<String, List<String>> headers) throws IOException {
+        var lines = new ArrayList<String>();
+        headers.forEach((name, values) -> values.forEach(value -> lines.add(name + SEPARATOR + value)));
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private String createKey(final String url, final String mediaType) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(url.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(StringUtils.defaultString(mediaType).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", exception);
+        }
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param etag
+     *         the entity tag of the response
+     * @param headers
+     *         the headers of the response
+     * @param body
+     *         the file that contains the body of the response
+     */
+    record Entry(String etag, Map<String, List<String>> headers, Path body) {
+    }
+}
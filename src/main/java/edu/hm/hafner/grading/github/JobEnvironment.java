@@ -0,0 +1,177 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * The environment of a job of the {@link QualityMonitorDaemon}. The action reads its inputs from environment variables
+ * and resolves its files relative to the working directory. Both are global to the JVM, so the daemon binds the
+ * environment variables and the workspace of each job to the threads of the job: all classes of the action read the
+ * environment variables with {@link #getEnv(String)} and resolve files with {@link #resolve(String)}. Threads that
+ * are started by a job inherit the environment of the job. If no job is active (e.g., in the Docker container), the
+ * environment variables of the process and the working directory are used.
+ *
+ * <p>
+ * The autograding model finds the report files relative to the working directory of the daemon. Therefore, the
+ * patterns of the configuration are relocated to the workspace of the job with {@link #relocatePatterns(String)}.
+ * </p>
+ */
+final class JobEnvironment {
+    private static final InheritableThreadLocal<JobEnvironment> CURRENT = new InheritableThreadLocal<>();
+    private static final String ANY_FOLDER = "**/";
+
+    private final Path workspace;
+    private final String relativeWorkspace;
+    private final Map<String, String> variables;
+
+    /**
+     * Creates the environment of a job.
+     *
+     * @param root
+     *         the working directory of the daemon
+     * @param workspace
+     *         the workspace of the job, must be a folder below the working directory of the daemon
+     * @param variables
+     *         the environment variables of the job
+     *
+     * @throws IllegalArgumentException
+     *         if the workspace is not a folder below the working directory of the daemon
+     */
+    JobEnvironment(final Path root, final Path workspace, final Map<String, String> variables) {
+        var absoluteRoot = root.toAbsolutePath().normalize();
+        this.workspace = workspace.toAbsolutePath().normalize();
+        if (!this.workspace.startsWith(absoluteRoot)) {
+            throw new IllegalArgumentException(
+                    "Workspace %s is not a folder below %s".formatted(this.workspace, absoluteRoot));
+        }
+        this.relativeWorkspace = absoluteRoot.relativize(this.workspace).toString().replace('\\', '/');
+        this.variables = Map.copyOf(variables);
+    }
+
+    /**
+     * Returns whether this job should be profiled with a {@link FlightRecording}.
+     *
+     * @return {@code true} if the job sets the environment variable {@code PROFILE}, {@code false} otherwise
+     */
+    boolean isProfiled() {
+        return StringUtils.isNotBlank(variables.get("PROFILE"));
+    }
+
+    /**
+     * Runs the specified task in this environment.
+     *
+     * @param task
+     *         the task to run
+     */
+    void run(final Runnable task) {
+        CURRENT.set(this);
+        try {
+            task.run();
+        }
+        finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Returns the value of the specified environment variable of the active job, or of the process if no job is
+     * active.
+     *
+     * @param key
+     *         the name of the environment variable
+     *
+     * @return the value, or an empty string if the variable is not set
+     */
+    static String getEnv(final String key) {
+        var job = CURRENT.get();
+        if (job == null) {
+            return StringUtils.defaultString(System.getenv(key));
+        }
+        return StringUtils.defaultString(job.variables.get(key));
+    }
+
+    /**
+     * Resolves the specified file in the workspace of the active job, or in the working directory if no job is
+     * active.
+     *
+     * @param file
+     *         the relative path of the file
+     *
+     * @return the resolved path
+     */
+    static Path resolve(final String file) {
+        var job = CURRENT.get();
+        if (job == null) {
+            return Path.of(file);
+        }
+        return job.workspace.resolve(file);
+    }
+
+    /**
+     * Returns the path of the workspace of the active job relative to the working directory of the daemon.
+     *
+     * @return the relative path, or an empty string if no job is active
+     */
+    static String getRelativeWorkspace() {
+        var job = CURRENT.get();
+        return job == null ? StringUtils.EMPTY : job.relativeWorkspace;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Relocates the report patterns of the specified configuration to the workspace of the active job. Since the
+     * leading {@code **}{@code /} of a pattern also matches no folder at all, such a pattern is relocated to two
+     * patterns.
+     *
+     * @param configuration
+     *         the JSON configuration
+     *
+     * @return the configuration with the relocated patterns, or the unchanged configuration if no job is active or
+     *         the configuration is not valid JSON
+     */
+    static String relocatePatterns(final String configuration) {
+        var prefix = getRelativeWorkspace();
+        if (prefix.isEmpty()) {
+            return configuration;
+        }
+        try {
+            var root = new ObjectMapper().readTree(configuration);
+            relocatePatterns(root, prefix + "/");
+            return root.toString();
+        }
+        catch (IOException _) {
+            return configuration; // the autograding model reports the error
+        }
+    }
+
+    private static void relocatePatterns(final JsonNode node, final String prefix) {
+        if (node instanceof ObjectNode object && node.path("pattern").isTextual()) {
+            var relocated = new ArrayList<String>();
+            for (String pattern : StringUtils.split(node.path("pattern").asText(), ',')) {
+                var trimmed = pattern.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                relocated.add(prefix + trimmed);
+                if (trimmed.startsWith(ANY_FOLDER)) {
+                    relocated.add(prefix + trimmed.substring(ANY_FOLDER.length()));
+                }
+            }
+            object.put("pattern", String.join(",", relocated));
+        }
+        else if (node.isContainerNode()) {
+            node.forEach(child -> relocatePatterns(child, prefix));
+        }
+    }
+}
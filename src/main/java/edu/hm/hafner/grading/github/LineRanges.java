@@ -0,0 +1,244 @@
+package edu.hm.hafner.grading.github;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * An immutable set of line numbers that is stored as sorted, disjoint ranges of primitive integers. Compared to a
+ * {@code HashSet<Integer>} this representation requires only two integers per range of consecutive lines instead of
+ * a boxed integer and a hash table entry per line. Range queries are answered with a binary search.
+ */
+final class LineRanges extends AbstractSet<Integer> {
+    private static final LineRanges EMPTY = new LineRanges(new int[0], new int[0], 0);
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    /**
+     * Returns an empty set of line ranges.
+     *
+     * @return an empty set
+     */
+    static LineRanges empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates line ranges that contain the specified lines.
+     *
+     * @param lines
+     *         the lines to add
+     *
+     * @return the line ranges
+     */
+    static LineRanges of(final Set<Integer> lines) {
+        if (lines instanceof LineRanges ranges) {
+            return ranges;
+        }
+        var builder = new Builder();
+        for (Integer line : lines) {
+            builder.add(line, line);
+        }
+        return builder.build();
+    }
+
+    private LineRanges(final int[] starts, final int[] ends, final int size) {
+        super();
+
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Returns whether at least one line of the range {@code [start, end]} is part of this set.
+     *
+     * @param start
+     *         the first line of the range (inclusive)
+     * @param end
+     *         the last line of the range (inclusive)
+     *
+     * @return {@code true} if the range overlaps with one of the stored ranges, {@code false} otherwise
+     */
+    boolean overlaps(final int start, final int end) {
+        int index = findLastRangeStartingAtOrBefore(end);
+
+        return index >= 0 && ends[index] >= start;
+    }
+
+    private int findLastRangeStartingAtOrBefore(final int line) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= line) {
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Returns the number of stored ranges.
+     *
+     * @return the number of ranges
+     */
+    int getRangeCount() {
+        return starts.length;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Integer line && overlaps(line, line);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int range;
+            private int next = starts.length > 0 ? starts[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                return range < starts.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int line = next;
+                if (line == ends[range]) {
+                    range++;
+                    if (range < starts.length) {
+                        next = starts[range];
+                    }
+                }
+                else {
+                    next++;
+                }
+                return line;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        var joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < starts.length; i++) {
+            joiner.add(starts[i] == ends[i] ? String.valueOf(starts[i]) : starts[i] + "-" + ends[i]);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Collects ranges of lines in arbitrary order and creates the immutable {@link LineRanges}. Overlapping or
+     * adjacent ranges are merged.
+     */
+    static final class Builder {
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int count;
+
+        /**
+         * Adds the range {@code [first, last]}.
+         *
+         * @param first
+         *         the first line (inclusive)
+         * @param last
+         *         the last line (inclusive)
+         *
+         * @return this
+         */
+        Builder add(final int first, final int last) {
+            if (first > last) {
+                return this;
+            }
+            if (count > 0 && first >= starts[count - 1] && first <= ends[count - 1] + 1L) {
+                ends[count - 1] = Math.max(ends[count - 1], last); // fast path for sorted input
+                return this;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = first;
+            ends[count] = last;
+            count++;
+            return this;
+        }
+
+        /**
+         * Returns whether no range has been added yet.
+         *
+         * @return {@code true} if this builder is empty
+         */
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        /**
+         * Creates the immutable line ranges.
+         *
+         * @return the line ranges
+         */
+        LineRanges build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            sortByStart();
+
+            var mergedStarts = new int[count];
+            var mergedEnds = new int[count];
+            int merged = 0;
+            long size = 0;
+            for (int i = 0; i < count; i++) {
+                if (merged > 0 && starts[i] <= mergedEnds[merged - 1] + 1L) {
+                    if (ends[i] > mergedEnds[merged - 1]) {
+                        size += ends[i] - mergedEnds[merged - 1];
+                        mergedEnds[merged - 1] = ends[i];
+                    }
+                }
+                else {
+                    mergedStarts[merged] = starts[i];
+                    mergedEnds[merged] = ends[i];
+                    size += (long) ends[i] - starts[i] + 1;
+                    merged++;
+                }
+            }
+            return new LineRanges(Arrays.copyOf(mergedStarts, merged), Arrays.copyOf(mergedEnds, merged),
+                    (int) Math.min(size, Integer.MAX_VALUE));
+        }
+
+        private void sortByStart() {
+            for (int i = 1; i < count; i++) {
+                if (starts[i] < starts[i - 1]) {
+                    var ranges = new long[count];
+                    for (int j = 0; j < count; j++) {
+                        ranges[j] = (long) starts[j] << 32 | ends[j] & 0xFFFF_FFFFL;
+                    }
+                    Arrays.sort(ranges);
+                    for (int j = 0; j < count; j++) {
+                        starts[j] = (int) (ranges[j] >> 32);
+                        ends[j] = (int) ranges[j];
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package edu.hm.hafner.grading.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates several named configurations in a single JVM (monorepo mode). The configurations are provided as a JSON
+ * object in the environment variable {@code CONFIGS}: each property is the name of a configuration, its value is the
+ * configuration itself (in the same format as {@code CONFIG}).
+ *
+ * <p>
+ * All configurations share the JVM, the connection to GitHub (including the request scheduler and the response
+ * cache), and the changed lines of the pull request, which are loaded only once. The configurations are evaluated in
+ * parallel on virtual threads, and each configuration publishes its own check run and pull request comment. Each
+ * configuration writes to its own log buffer that is printed as soon as the configuration and all configurations
+ * before it have been finished, so the output of the configurations is not interleaved. The requests to GitHub and
+ * the statistics of the shared connection are reported once after all configurations have been finished.
+ * </p>
+ */
+final class MonorepoMonitor {
+    private static final Pattern VALID_NAME = Pattern.compile("[\\w.-]+");
+
+    private final PrintStream output;
+    private final GitHubConnection connection;
+
+    /**
+     * Returns whether the monorepo mode has been enabled with the environment variable {@code CONFIGS}.
+     *
+     * @return {@code true} if the monorepo mode is enabled, {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return !getConfigurations().isBlank();
+    }
+
+    private static String getConfigurations() {
+        return JobEnvironment.getEnv("CONFIGS");
+    }
+
+    MonorepoMonitor(final PrintStream output, final GitHubConnection connection) {
+        this.output = output;
+        this.connection = connection;
+    }
+
+    /**
+     * Evaluates the configurations of the environment variable {@code CONFIGS}.
+     */
+    void run() {
+        run(getConfigurations());
+    }
+
+    /**
+     * Evaluates the specified configurations.
+     *
+     * @param configurations
+     *         the named configurations as JSON object
+     */
+    void run(final String configurations) {
+        var log = new FilteredLog("Errors while evaluating the configurations:");
+        var recording = FlightRecording.fromEnvironment();
+
+        var jobs = new ArrayList<Job>();
+        for (Entry<String, String> configuration : parse(configurations, log).entrySet()) {
+            var buffer = new ByteArrayOutputStream();
+            var printStream = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+            jobs.add(new Job(configuration.getKey(), buffer,
+                    new QualityMonitor(printStream, connection, configuration.getKey(), configuration.getValue())));
+        }
+
+        if (!jobs.isEmpty()) {
+            log.logInfo("Evaluating %d configurations: %s", jobs.size(), jobs.stream().map(Job::name).toList());
+            var changedLines = jobs.getFirst().monitor().prefetchModifiedLines();
+            jobs.forEach(job -> job.monitor().shareModifiedLines(changedLines));
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var results = jobs.stream().map(job -> executor.submit(job.monitor()::run)).toList();
+                for (int i = 0; i < jobs.size(); i++) {
+                    await(jobs.get(i), results.get(i), log);
+                    output.print(jobs.get(i).buffer().toString(StandardCharsets.UTF_8));
+                }
+            }
+            reportConnection(log);
+        }
+        recording.stop(log);
+
+        log.getInfoMessages().forEach(output::println);
+        log.getErrorMessages().forEach(output::println);
+        output.flush();
+    }
+
+    /**
+     * Reports the requests to GitHub of all configurations. The requests are appended to the {@code metrics.env} file,
+     * the configurations write their own phases and tools to their named metrics files.
+     */
+    private void reportConnection(final FilteredLog log) {
+        connection.logStatistics(log);
+
+        var performance = connection.getPerformanceReport();
+        if (performance.isEnabled()) {
+            try {
+                Files.writeString(JobEnvironment.resolve(QualityMonitor.METRICS_FILE), performance.toCallMetrics(),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            catch (IOException exception) {
+                log.logException(exception, "Can't write performance metrics to '%s'", QualityMonitor.METRICS_FILE);
+            }
+        }
+    }
+
+    private void await(final Job job, final Future<?> result, final FilteredLog log) {
+        try {
+            result.get();
+        }
+        catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+
+            log.logError("Interrupted while evaluating configuration '%s'", job.name());
+        }
+        catch (ExecutionException exception) {
+            log.logException(exception, "Evaluating configuration '%s' failed", job.name());
+        }
+    }
+
+    /**
+     * Parses the named configurations.
+     *
+     * @param configurations
+     *         the named configurations as JSON object
+     * @param log
+     *         the logger
+     *
+     * @return the configurations, mapped by their names in the order of the JSON object
+     */
+    static Map<String, String> parse(final String configurations, final FilteredLog log) {
+        var named = new LinkedHashMap<String, String>();
+        try {
+            var root = new ObjectMapper().readTree(configurations);
+            if (root == null || !root.isObject()) {
+                log.logError("The named configurations must be a JSON object that maps names to configurations");
+
+                return named;
+            }
+            for (var iterator = root.fields(); iterator.hasNext();) {
+                Entry<String, JsonNode> field = iterator.next();
+                var name = field.getKey();
+                if (!VALID_NAME.matcher(name).matches()) {
+                    log.logError("Skipping configuration '%s': names may contain only letters, digits, '.', '-', "
+                            + "and '_'", name);
+                }
+                else if (!field.getValue().isObject()) {
+                    log.logError("Skipping configuration '%s': the configuration must be a JSON object", name);
+                }
+                else {
+                    named.put(name, field.getValue().toString());
+                }
+            }
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't parse the named configurations");
+        }
+        return named;
+    }
+
+    private record Job(String name, ByteArrayOutputStream buffer, QualityMonitor monitor) {
+    }
+}
@@ -0,0 +1,281 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the file paths of reports to the repository-relative paths of the changed files of a pull request. Reports
+ * describe files in many different ways: with absolute paths of the workspace in the Docker container or on the
+ * runner, relative to a module, or relative to a source folder (e.g., the package paths of JaCoCo and PIT). A report
+ * path is resolved to a changed file if the report path is the path of the changed file in one of the known
+ * workspaces, or if the report path is a suffix of exactly one file of the whole project and this file has been
+ * changed. A suffix that is unambiguous among the changed files only is not a match, since the report path might
+ * refer to an unchanged file with the same package path in another module. A changed file that is only a suffix of a
+ * longer report path is not a match either, since the report path might refer to a file with the same name in another
+ * module.
+ *
+ * <p>
+ * The changed files are indexed in a trie of their path segments in reverse order, i.e., the root of the trie contains
+ * the file names, the next level the parent folders, and so on. Resolving a report path therefore takes
+ * {@code O(length of the path)}, independent of the number of changed files. Since many reports refer to the same
+ * file several times, the result for each distinct report path is cached. Report paths that do not refer to a changed
+ * file are resolved by removing the known workspace prefixes.
+ * </p>
+ *
+ * <p>
+ * The files of the project are required only for report paths that are a suffix of a changed file, e.g., package
+ * paths. They are obtained once on the first such report path, and only the files with the name of a changed file are
+ * indexed.
+ * </p>
+ */
+final class PathResolver {
+    private static final char SEPARATOR = '/';
+
+    private final Segment root = new Segment();
+    private final Set<String> fileNames = new HashSet<>();
+    private final ProjectFiles projectFiles;
+    private final List<String> prefixes;
+    private final List<List<String>> prefixSegments;
+    private final Map<String, String> resolved = new HashMap<>();
+    private Segment project;
+
+    /**
+     * Finds the files of the project.
+     */
+    @FunctionalInterface
+    interface ProjectFiles {
+        /**
+         * Finds the files of the project with one of the specified names.
+         *
+         * @param names
+         *         the names of the files to find
+         *
+         * @return the repository-relative paths of the matching files
+         */
+        Collection<String> find(Set<String> names);
+
+        /**
+         * Returns the files of the project in the specified workspace. Hidden folders (e.g., {@code .git}) are skipped.
+         *
+         * @param workspace
+         *         the root folder of the repository
+         *
+         * @return the files of the project
+         */
+        static ProjectFiles in(final Path workspace) {
+            return names -> {
+                var files = new ArrayList<String>();
+                try {
+                    Files.walkFileTree(workspace, new SimpleFileVisitor<>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(final Path folder,
+                                final BasicFileAttributes attributes) {
+                            var name = folder.getFileName();
+                            return name != null && name.toString().startsWith(".") && !folder.equals(workspace)
+                                    ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                            if (names.contains(file.getFileName().toString())) {
+                                files.add(normalize(workspace.relativize(file).toString()));
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(final Path file, final IOException exception) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+                }
+                catch (IOException _) {
+                    // the files that have been found so far are used
+                }
+                return files;
+            };
+        }
+    }
+
+    /**
+     * Creates a new resolver that does not know the files of the project. Report paths that are only a suffix of a
+     * changed file (e.g., package paths) are not resolved to the changed file.
+     *
+     * @param changedFiles
+     *         the repository-relative paths of the changed files
+     * @param prefixes
+     *         the known workspace prefixes: they are removed from report paths that do not refer to a changed file,
+     *         and report paths that start with one of them are resolved to the changed file that follows the prefix
+     */
+    PathResolver(final Collection<String> changedFiles, final String... prefixes) {
+        this(changedFiles, _ -> List.of(), prefixes);
+    }
+
+    /**
+     * Creates a new resolver.
+     *
+     * @param changedFiles
+     *         the repository-relative paths of the changed files
+     * @param projectFiles
+     *         finds the files of the project, used to check that a report path that is a suffix of a changed file does
+     *         not refer to another file of the project
+     * @param prefixes
+     *         the known workspace prefixes: they are removed from report paths that do not refer to a changed file,
+     *         and report paths that start with one of them are resolved to the changed file that follows the prefix
+     */
+    PathResolver(final Collection<String> changedFiles, final ProjectFiles projectFiles, final String... prefixes) {
+        changedFiles.forEach(file -> add(root, file));
+        changedFiles.stream().map(PathResolver::getFileName).forEach(fileNames::add);
+        this.projectFiles = projectFiles;
+        this.prefixes = createPrefixes(prefixes);
+        this.prefixSegments = this.prefixes.stream().map(PathResolver::split).toList();
+    }
+
+    private List<String> createPrefixes(final String... additionalPrefixes) {
+        var all = new ArrayList<String>();
+        for (String prefix : additionalPrefixes) {
+            if (StringUtils.isNotBlank(prefix)) {
+                var normalized = normalize(prefix);
+                all.add(normalized.endsWith("/") ? normalized : normalized + SEPARATOR);
+            }
+        }
+        return all;
+    }
+
+    private static void add(final Segment root, final String path) {
+        var segments = split(normalize(path));
+        var node = root;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            node.count++;
+            node.path = path;
+            node = node.children.computeIfAbsent(segments.get(i), _ -> new Segment());
+        }
+        node.count++;
+        node.path = path;
+        node.file = path;
+    }
+
+    /**
+     * Resolves the specified path of a report.
+     *
+     * @param reportPath
+     *         the path of a file in a report
+     *
+     * @return the repository-relative path of the matching changed file, or the report path without the workspace
+     *         prefix if the report path does not refer to a changed file
+     */
+    String resolve(final String reportPath) {
+        return resolved.computeIfAbsent(reportPath, this::lookup);
+    }
+
+    private String lookup(final String reportPath) {
+        var normalized = normalize(reportPath);
+        var segments = split(normalized);
+
+        var node = root;
+        String suffix = null;
+        var consumed = 0;
+        var suffixLength = 0;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            var child = node.children.get(segments.get(i));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            consumed++;
+            if (node.file != null) {
+                suffix = node.file;
+                suffixLength = consumed;
+            }
+        }
+
+        if (consumed > 0 && consumed == segments.size()) { // the report path is a suffix of the changed files
+            if (node.file != null) {
+                return node.file;
+            }
+            if (node.count == 1 && isUniqueInProject(segments, node.path)) {
+                return node.path; // e.g., a package path of a file in a source folder
+            }
+        }
+        else if (suffix != null && isWorkspace(segments.subList(0, segments.size() - suffixLength))) {
+            return suffix; // the report path is the absolute path of the changed file in a known workspace
+        }
+        return removePrefix(normalized);
+    }
+
+    private boolean isUniqueInProject(final List<String> segments, final String changedFile) {
+        if (project == null) {
+            project = new Segment();
+            projectFiles.find(fileNames).forEach(file -> add(project, file));
+        }
+        var node = project;
+        for (int i = segments.size() - 1; i >= 0 && node != null; i--) {
+            node = node.children.get(segments.get(i));
+        }
+        return node != null && node.count == 1 && normalize(changedFile).equals(normalize(node.path));
+    }
+
+    private static String getFileName(final String path) {
+        var segments = split(normalize(path));
+
+        return segments.isEmpty() ? StringUtils.EMPTY : segments.getLast();
+    }
+
+    private boolean isWorkspace(final List<String> leadingSegments) {
+        return prefixSegments.contains(leadingSegments);
+    }
+
+    private String removePrefix(final String path) {
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return path.substring(prefix.length());
+            }
+        }
+        return path;
+    }
+
+    private static String normalize(final String path) {
+        var normalized = path.replace('\\', SEPARATOR).replace("/./", "/");
+        return StringUtils.removeStart(normalized, "./");
+    }
+
+    private static List<String> split(final String path) {
+        var segments = new ArrayList<String>();
+        var start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == SEPARATOR) {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * A segment of the paths of the changed files. The children are the parent folders of the segment.
+     */
+    private static final class Segment {
+        private final Map<String, Segment> children = new HashMap<>();
+        /** The number of changed files that end with the path of this segment. */
+        private int count;
+        /** One of the changed files that end with the path of this segment, unique if {@code count} is 1. */
+        private String path;
+        /** The changed file that starts with this segment, or {@code null} if there is no such file. */
+        private String file;
+    }
+}
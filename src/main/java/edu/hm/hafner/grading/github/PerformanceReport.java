@@ -0,0 +1,357 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.hm.hafner.grading.github.ReportPatternScanner.ToolScan;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.kohsuke.github.connector.GitHubConnector;
+
+/**
+ * Collects the durations of the phases of a run and of all requests to GitHub, and the size of the report files of
+ * each configured tool. The report is published as a collapsible section of the checks details and as additional
+ * entries of the {@code metrics.env} file.
+ *
+ * <p>
+ * In monorepo mode, each named configuration uses its own report (see {@link #forConfiguration()}) for its phases and
+ * tools, while the requests to GitHub of all configurations are recorded by the single report of the shared
+ * connection.
+ * </p>
+ *
+ * <p>
+ * The report is configured with the following environment variables:
+ * </p>
+ * <ul>
+ *     <li>{@code PERFORMANCE_REPORT}: enables the report if not empty (optional)</li>
+ *     <li>{@code PERFORMANCE_BUDGET}: the size budget of the report files of a tool in MB, tools that exceed this
+ *     budget are highlighted since their parsing time grows with the size of the reports (optional)</li>
+ * </ul>
+ */
+final class PerformanceReport {
+    private static final int DEFAULT_BUDGET = 10;
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final int MAX_CALLS = 10;
+    private static final String METRICS_PREFIX = "performance_";
+
+    private final boolean enabled;
+    private final int budget;
+    private final boolean includeCalls;
+    private final long start = System.nanoTime();
+
+    private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+    private final Queue<Call> calls = new ConcurrentLinkedQueue<>();
+    private final Queue<ToolScan> tools = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a report that is configured by the environment variables of the run.
+     *
+     * @return the report
+     */
+    static PerformanceReport fromEnvironment() {
+        return new PerformanceReport(StringUtils.isNotBlank(getEnv("PERFORMANCE_REPORT")),
+                getMegabytes(getEnv("PERFORMANCE_BUDGET")));
+    }
+
+    /**
+     * Creates a new report.
+     *
+     * @param enabled
+     *         determines whether the report is enabled
+     * @param budget
+     *         the size budget of the report files of a tool in MB
+     */
+    PerformanceReport(final boolean enabled, final int budget) {
+        this(enabled, budget, true);
+    }
+
+    private PerformanceReport(final boolean enabled, final int budget, final boolean includeCalls) {
+        this.enabled = enabled;
+        this.budget = budget;
+        this.includeCalls = includeCalls;
+    }
+
+    /**
+     * Creates an empty report with the same settings for a named configuration of a {@link MonorepoMonitor}. The
+     * report contains only the phases and tools of the configuration: the requests to GitHub are shared by all
+     * configurations, so they are reported only once by this report.
+     *
+     * @return the report of the configuration
+     */
+    PerformanceReport forConfiguration() {
+        return new PerformanceReport(enabled, budget, false);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Starts the measurement of the specified phase. The duration is recorded when the returned stopwatch is closed.
+     *
+     * @param name
+     *         the name of the phase
+     *
+     * @return the stopwatch of the phase
+     */
+    Stopwatch start(final String name) {
+        var started = System.nanoTime();
+        return () -> record(name, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Records the time since this report has been created as duration of the specified phase.
+     *
+     * @param name
+     *         the name of the phase
+     */
+    void recordSinceStart(final String name) {
+        record(name, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    void record(final String name, final Duration duration) {
+        phases.add(new Phase(name, duration));
+    }
+
+    /**
+     * Records a request to GitHub.
+     *
+     * @param method
+     *         the HTTP method
+     * @param url
+     *         the URL of the request
+     * @param status
+     *         the HTTP status code of the response, or 0 if the request failed
+     * @param duration
+     *         the duration of the request
+     */
+    void recordCall(final String method, final URI url, final int status, final Duration duration) {
+        calls.add(new Call(method, url.getPath(), status, duration));
+    }
+
+    /**
+     * Returns a connector that records the durations of all requests of the specified connector.
+     *
+     * @param connector
+     *         the connector that actually sends the requests
+     *
+     * @return the observing connector
+     */
+    GitHubConnector observe(final GitHubConnector connector) {
+        return request -> {
+            var started = System.nanoTime();
+            var status = 0;
+            try {
+                var response = connector.send(request);
+                status = response.statusCode();
+                return response;
+            }
+            finally {
+                recordCall(request.method(), URI.create(request.url().toString()), status,
+                        Duration.ofNanos(System.nanoTime() - started));
+            }
+        };
+    }
+
+    void addTools(final List<ToolScan> scans) {
+        tools.addAll(scans);
+    }
+
+    List<Phase> getPhases() {
+        return List.copyOf(phases);
+    }
+
+    List<Call> getCalls() {
+        return List.copyOf(calls);
+    }
+
+    List<ToolScan> getTools() {
+        return List.copyOf(tools);
+    }
+
+    /**
+     * Returns the tools whose report files exceed the size budget.
+     *
+     * @return the tools that exceed the size budget
+     */
+    List<ToolScan> getToolsOverBudget() {
+        return tools.stream().filter(this::isOverBudget).toList();
+    }
+
+    private boolean isOverBudget(final ToolScan tool) {
+        return tool.bytes() > budget * MEGABYTE;
+    }
+
+    /**
+     * Creates the collapsible Markdown section of the checks details.
+     *
+     * @return the Markdown section
+     */
+    String toMarkdown() {
+        var markdown = new StringBuilder(1024);
+        markdown.append("\n\n<details>\n<summary>Performance</summary>\n\n");
+
+        markdown.append("| Phase | Duration |\n|:---|---:|\n");
+        phases.forEach(phase -> markdown.append("| %s | %s |%n".formatted(phase.name(), format(phase.duration()))));
+
+        if (!tools.isEmpty()) {
+            markdown.append("\n| Tool | Pattern | Files | Size | Records |\n")
+                    .append("|:---|:---|---:|---:|---:|\n");
+            for (ToolScan tool : tools) {
+                markdown.append("| %s%s | `%s` | %d | %s | %s |%n".formatted(
+                        isOverBudget(tool) ? ":warning: " : "", tool.name(), tool.pattern(), tool.files(),
+                        formatSize(tool.bytes()), tool.records() < 0 ? "-" : String.valueOf(tool.records())));
+            }
+            markdown.append("""
+
+                    The autograding model does not report the parsing time of a tool, the parsing time of all tools \
+                    is part of the phase that reads the reports. Since the parsing time of a tool grows with the size \
+                    of its report files, tools with report files of more than %d MB are marked with :warning:.
+                    """.formatted(budget));
+        }
+
+        var requests = getCalls();
+        if (!requests.isEmpty()) {
+            var total = requests.stream().map(Call::duration).reduce(Duration.ZERO, Duration::plus);
+            markdown.append("\n%d GitHub requests took %s in total. Slowest requests:%n%n"
+                    .formatted(requests.size(), format(total)));
+            markdown.append("| Request | Status | Duration |\n|:---|---:|---:|\n");
+            requests.stream()
+                    .sorted(Comparator.comparing(Call::duration).reversed())
+                    .limit(MAX_CALLS)
+                    .forEach(call -> markdown.append("| `%s %s` | %d | %s |%n".formatted(
+                            call.method(), call.path(), call.status(), format(call.duration()))));
+        }
+        markdown.append("\n</details>\n");
+
+        return markdown.toString();
+    }
+
+    /**
+     * Creates the entries of the {@code metrics.env} file.
+     *
+     * @return the entries, one per line
+     */
+    String toMetrics() {
+        var metrics = new StringBuilder(512);
+        phases.forEach(phase -> append(metrics, toKey(phase.name()) + "_ms", phase.duration().toMillis()));
+
+        var keys = new HashSet<String>();
+        for (ToolScan tool : tools) {
+            var key = "tool_" + toKey(tool.id());
+            for (int index = 2; !keys.add(key); index++) {
+                key = "tool_%s_%d".formatted(toKey(tool.id()), index);
+            }
+            append(metrics, key + "_files", tool.files());
+            append(metrics, key + "_bytes", tool.bytes());
+            if (tool.records() >= 0) {
+                append(metrics, key + "_records", tool.records());
+            }
+        }
+
+        if (includeCalls) {
+            metrics.append(toCallMetrics());
+        }
+        return metrics.toString();
+    }
+
+    /**
+     * Creates the entries of the {@code metrics.env} file for the requests to GitHub.
+     *
+     * @return the entries, one per line
+     */
+    String toCallMetrics() {
+        var metrics = new StringBuilder(128);
+
+        var requests = getCalls();
+        append(metrics, "github_requests", requests.size());
+        append(metrics, "github_ms", requests.stream().mapToLong(call -> call.duration().toMillis()).sum());
+
+        return metrics.toString();
+    }
+
+    private void append(final StringBuilder metrics, final String key, final long value) {
+        metrics.append(String.format(Locale.ENGLISH, "%s%s=%d%n", METRICS_PREFIX, key, value));
+    }
+
+    private String toKey(final String name) {
+        return StringUtils.strip(name.toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9]+", "_"), "_");
+    }
+
+    private String format(final Duration duration) {
+        return "%d ms".formatted(duration.toMillis());
+    }
+
+    private String formatSize(final long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < MEGABYTE) {
+            return "%d KB".formatted(bytes / 1024);
+        }
+        return "%d MB".formatted(bytes / MEGABYTE);
+    }
+
+    private static int getMegabytes(final String value) {
+        if (StringUtils.isBlank(value)) {
+            return DEFAULT_BUDGET;
+        }
+        try {
+            var megabytes = Integer.parseInt(value.trim());
+            return megabytes > 0 ? megabytes : DEFAULT_BUDGET;
+        }
+        catch (NumberFormatException _) {
+            return DEFAULT_BUDGET;
+        }
+    }
+
+    private static String getEnv(final String key) {
+        return JobEnvironment.getEnv(key);
+    }
+
+    /**
+     * Measures the duration of a phase.
+     */
+    @FunctionalInterface
+    interface Stopwatch extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * The duration of a phase of the run.
+     *
+     * @param name
+     *         the name of the phase
+     * @param duration
+     *         the duration of the phase
+     */
+    record Phase(String name, Duration duration) {
+    }
+
+    /**
+     * The duration of a request to GitHub.
+     *
+     * @param method
+     *         the HTTP method
+     * @param path
+     *         the path of the URL
+     * @param status
+     *         the HTTP status code of the response, or 0 if the request failed
+     * @param duration
+     *         the duration of the request
+     */
+    record Call(String method, String path, int status, Duration duration) {
+    }
+}
@@ -0,0 +1,125 @@
+package edu.hm.hafner.grading.github;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The changed lines of a pull request that are loaded in the background. Loading the diff requires several round
+ * trips to GitHub, so the loading starts on a virtual thread as soon as the action starts and overlaps with the
+ * parsing of the reports. This map blocks on the first access until the changed lines are available. If the changed
+ * lines are not available within the timeout, then this map is empty.
+ *
+ * <p>
+ * The background task logs into a separate log that is merged into the log of the run when the changed lines are
+ * accessed for the first time.
+ * </p>
+ */
+final class PrefetchedChangedLines extends AbstractMap<String, Set<Integer>> {
+    private final CompletableFuture<Map<String, Set<Integer>>> future = new CompletableFuture<>();
+    private final FilteredLog prefetchLog = new FilteredLog("Errors while loading the changed lines:");
+    private final Duration timeout;
+
+    private FilteredLog log = new FilteredLog("Errors while loading the changed lines:");
+    private Map<String, Set<Integer>> changedLines;
+
+    /**
+     * Starts loading the changed lines in the background.
+     *
+     * @param loader
+     *         the function that loads the changed lines, the function gets a log as argument
+     * @param timeout
+     *         the maximum time to wait for the changed lines on the first access
+     *
+     * @return the changed lines that will be available in the future
+     */
+    static PrefetchedChangedLines start(final Function<FilteredLog, Map<String, Set<Integer>>> loader,
+            final Duration timeout) {
+        var changedLines = new PrefetchedChangedLines(timeout);
+        Thread.ofVirtual().name("changed-lines-prefetch").start(() -> changedLines.load(loader));
+        return changedLines;
+    }
+
+    private PrefetchedChangedLines(final Duration timeout) {
+        super();
+
+        this.timeout = timeout;
+    }
+
+    private void load(final Function<FilteredLog, Map<String, Set<Integer>>> loader) {
+        try {
+            future.complete(loader.apply(prefetchLog));
+        }
+        catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Sets the log that receives the messages of the background task.
+     *
+     * @param runLog
+     *         the log of the run
+     */
+    synchronized void setLog(final FilteredLog runLog) {
+        this.log = runLog;
+    }
+
+    @Override
+    public Set<Entry<String, Set<Integer>>> entrySet() {
+        return join().entrySet();
+    }
+
+    @Override
+    public Set<Integer> get(final Object key) {
+        return join().get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return join().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return join().size();
+    }
+
+    private synchronized Map<String, Set<Integer>> join() {
+        if (changedLines == null) {
+            changedLines = await();
+        }
+        return changedLines;
+    }
+
+    private Map<String, Set<Integer>> await() {
+        try {
+            var result = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.merge(prefetchLog);
+
+            return result;
+        }
+        catch (TimeoutException _) {
+            // the background task might still write to its log, so the messages of that log are skipped
+            log.logError("Loading the changed lines did not finish within %d seconds, skipping changed lines",
+                    timeout.toSeconds());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.logException(exception, "Interrupted while loading the changed lines");
+        }
+        catch (ExecutionException exception) {
+            log.merge(prefetchLog);
+            log.logException(exception, "Failed to load the changed lines");
+        }
+        return Map.of();
+    }
+}
@@ -0,0 +1,51 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.IOException;
+
+import org.kohsuke.github.GHIssueComment;
+
+/**
+ * A comment of a previous run of the quality monitor in a pull request.
+ */
+interface PreviousComment {
+    /**
+     * Creates a previous comment that is modified with the REST API.
+     *
+     * @param comment
+     *         the comment
+     *
+     * @return the previous comment
+     */
+    static PreviousComment of(final GHIssueComment comment) {
+        return new PreviousComment() {
+            @Override
+            public void delete() throws IOException {
+                comment.delete();
+            }
+
+            @Override
+            public void update(final String body) throws IOException {
+                comment.update(body);
+            }
+        };
+    }
+
+    /**
+     * Deletes this comment.
+     *
+     * @throws IOException
+     *         if the comment could not be deleted
+     */
+    void delete() throws IOException;
+
+    /**
+     * Replaces the body of this comment.
+     *
+     * @param body
+     *         the new body
+     *
+     * @throws IOException
+     *         if the comment could not be updated
+     */
+    void update(String body) throws IOException;
+}
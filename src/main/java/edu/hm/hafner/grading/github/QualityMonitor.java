@@ -10,27 +10,39 @@ import edu.hm.hafner.grading.AutoGradingRunner;
 import edu.hm.hafner.grading.GradingReport;
 import edu.hm.hafner.grading.QualityGateResult;
 import edu.hm.hafner.grading.Scope;
+import edu.hm.hafner.grading.github.AnnotationUploader.OutputText;
+import edu.hm.hafner.grading.github.AnnotationUploader.UploadResult;
+import edu.hm.hafner.grading.github.FlightRecording.Summary;
+import edu.hm.hafner.grading.github.GitHubRequestScheduler.Priority;
 import edu.hm.hafner.util.FilteredLog;
 import edu.hm.hafner.util.VisibleForTesting;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.kohsuke.github.GHCheckRun;
 import org.kohsuke.github.GHCheckRun.Conclusion;
 import org.kohsuke.github.GHCheckRun.Status;
 import org.kohsuke.github.GHCheckRunBuilder;
 import org.kohsuke.github.GHCheckRunBuilder.Output;
-import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
 import org.kohsuke.github.HttpException;
 
 /**
@@ -40,7 +52,7 @@ import org.kohsuke.github.HttpException;
  */
 @SuppressWarnings("PMD.GodClass")
 public class QualityMonitor extends AutoGradingRunner {
-    private static final String COMMENT_MARKER = "<!-- -[quality-monitor-comment]- -->";
+    private static final String COMMENT_MARKER = "<!-- -[quality-monitor-comment%s]- -->";
     static final String QUALITY_MONITOR = "Quality Monitor";
     private static final ParserRegistry PARSER_REGISTRY = new ParserRegistry();
 
@@ -48,12 +60,61 @@ public class QualityMonitor extends AutoGradingRunner {
     private static final String DEFAULT_TITLE_METRIC = "line";
     private static final boolean SHOW_HEADERS_IN_CHECKS_DETAILS = false;
     static final String REFERENCE_REPORTS = "reference-reports";
+    private static final String DIFF_SOURCE_FILES = "github-files";
+    private static final String DIFF_SOURCE_GIT = "git";
+
+    private static final Duration DIFF_TIMEOUT = Duration.ofMinutes(5);
+
+    static final String METRICS_FILE = "metrics.env";
+    static final String SNAPSHOT_FILE = "quality-monitor-snapshot.json";
+    private static final String DELTA_SCOPE_CHANGED_FILES = "changed-files";
+    static final String REFERENCE_SNAPSHOT = "reference-snapshot";
+
+    private final PerformanceReport performance;
+    private final GitHubConnection connection;
+    private final DebugLog debugLog;
+    private final FlightRecording recording;
+    private final String configurationName;
+    private final String configuration;
+    private PrefetchedChangedLines prefetchedChangedLines;
 
     /**
-     * The public entry point for the action in the docker container simply calls the quality monitor.
+     * The public entry point for the action in the docker container simply calls the quality monitor. The changed
+     * lines of the pull request are loaded in the background while the reports are parsed. If the environment variable
+     * {@code CONFIGS} is set, then all named configurations are evaluated by a {@link MonorepoMonitor}.
      */
     void main() {
-        new QualityMonitor().run();
+        if (MonorepoMonitor.isEnabled()) {
+            new MonorepoMonitor(System.out, GitHubConnection.fromEnvironment()).run();
+
+            return;
+        }
+        var monitor = new QualityMonitor();
+        monitor.prefetchModifiedLines();
+        monitor.run();
+    }
+
+    /**
+     * Starts loading the changed lines of the pull request in the background. Subsequent calls return the already
+     * started download.
+     *
+     * @return the changed lines that will be available in the future
+     */
+    synchronized PrefetchedChangedLines prefetchModifiedLines() {
+        if (prefetchedChangedLines == null) {
+            prefetchedChangedLines = PrefetchedChangedLines.start(this::loadModifiedLines, DIFF_TIMEOUT);
+        }
+        return prefetchedChangedLines;
+    }
+
+    /**
+     * Uses the changed lines that have already been started to load by another monitor.
+     *
+     * @param changedLines
+     *         the changed lines that will be available in the future
+     */
+    synchronized void shareModifiedLines(final PrefetchedChangedLines changedLines) {
+        prefetchedChangedLines = changedLines;
     }
 
     /**
@@ -61,11 +122,50 @@ public class QualityMonitor extends AutoGradingRunner {
      */
     public QualityMonitor() {
         super();
+
+        recording = FlightRecording.fromEnvironment();
+        performance = PerformanceReport.fromEnvironment();
+        connection = GitHubConnection.fromEnvironment(performance);
+        debugLog = DebugLog.fromEnvironment(System.out);
+        configurationName = StringUtils.EMPTY;
+        configuration = StringUtils.EMPTY;
     }
 
     @VisibleForTesting
     QualityMonitor(final PrintStream printStream) {
+        this(printStream, GitHubConnection.fromEnvironment());
+    }
+
+    QualityMonitor(final PrintStream printStream, final GitHubConnection connection) {
+        this(printStream, connection, StringUtils.EMPTY, StringUtils.EMPTY);
+    }
+
+    /**
+     * Creates a monitor for a named configuration of a {@link MonorepoMonitor}. The name is appended to the name of
+     * the check run, to the marker of the pull request comment, and to the names of the generated files. A named
+     * configuration measures its phases and tools in its own performance report, the requests to GitHub and the
+     * statistics of the shared connection are reported once by the {@link MonorepoMonitor}.
+     *
+     * @param printStream
+     *         the stream for the log of this configuration
+     * @param connection
+     *         the connection to GitHub that is shared by all configurations
+     * @param configurationName
+     *         the name of the configuration, or an empty string if the configuration is not named
+     * @param configuration
+     *         the JSON configuration, or an empty string to read the configuration from {@code CONFIG}
+     */
+    QualityMonitor(final PrintStream printStream, final GitHubConnection connection, final String configurationName,
+            final String configuration) {
         super(printStream);
+
+        this.connection = connection;
+        this.performance = configurationName.isEmpty()
+                ? connection.getPerformanceReport() : connection.getPerformanceReport().forConfiguration();
+        this.debugLog = DebugLog.fromEnvironment(printStream);
+        this.recording = configurationName.isEmpty() ? FlightRecording.fromEnvironment() : FlightRecording.disabled();
+        this.configurationName = configurationName;
+        this.configuration = configuration;
     }
 
     @Override
@@ -78,22 +178,81 @@ public class QualityMonitor extends AutoGradingRunner {
         return "/default-no-score-config.json";
     }
 
+    /**
+     * Returns the configuration of this monitor. Named configurations are provided by the {@link MonorepoMonitor},
+     * jobs of the {@link QualityMonitorDaemon} read the configuration from the environment of the job. In both cases,
+     * the report patterns are relocated to the workspace of the job, see {@link JobEnvironment}.
+     */
+    @Override
+    protected String getConfiguration(final FilteredLog log) {
+        if (!configuration.isEmpty()) {
+            log.logInfo("Obtaining configuration '%s' from environment variable CONFIGS", configurationName);
+
+            return JobEnvironment.relocatePatterns(configuration);
+        }
+        if (!JobEnvironment.isActive()) {
+            return super.getConfiguration(log);
+        }
+        var jobConfiguration = getEnv("CONFIG");
+        if (jobConfiguration.isBlank()) {
+            log.logInfo("No configuration provided (environment variable CONFIG not set), using default configuration");
+            try {
+                jobConfiguration = readDefaultConfiguration();
+            }
+            catch (IOException exception) {
+                log.logException(exception, "Can't read the default configuration");
+
+                return "{}";
+            }
+        }
+        else {
+            log.logInfo("Obtaining configuration from environment variable CONFIG");
+        }
+        return JobEnvironment.relocatePatterns(jobConfiguration);
+    }
+
     @Override
     protected void publishGradingResult(final AggregatedScore score, final QualityGateResult qualityGateResult,
             final FilteredLog log) {
+        performance.recordSinceStart("Reading, parsing, and grading the reports");
+        if (performance.isEnabled()) {
+            scanReportPatterns(score, log);
+        }
+
         var errors = createErrorMessageMarkdown(log);
         var conclusion = determineConclusion(errors, qualityGateResult, log);
         var qualityGateDetails = qualityGateResult.createMarkdownSummary();
         var showHeaders = StringUtils.isNotBlank(getEnv("SHOW_HEADERS"));
         var results = new GradingReport();
-        addComment(score,
-                results.getTextSummary(score, getChecksName()),
-                results.getMarkdownDetails(score, getChecksName()) + errors + qualityGateDetails,
-                results.getSubScoreDetails(score, SHOW_HEADERS_IN_CHECKS_DETAILS).toString() + errors + qualityGateDetails,
-                results.getMarkdownSummary(score, getChecksName(), showHeaders) + errors + qualityGateDetails,
-                conclusion, log);
-
-        writeMetrics(score, log);
+        var delta = createSnapshotDelta(score, log);
+
+        var metricsLog = new FilteredLog("Errors while writing metrics:");
+        var snapshotLog = new FilteredLog("Errors while writing the snapshot:");
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var metrics = executor.submit(() -> writeMetrics(score, metricsLog));
+            var snapshot = executor.submit(() -> writeSnapshot(score, snapshotLog));
+
+            addComment(score,
+                    results.getTextSummary(score, getChecksName()),
+                    results.getMarkdownDetails(score, getChecksName()) + errors + qualityGateDetails + delta,
+                    results.getSubScoreDetails(score, SHOW_HEADERS_IN_CHECKS_DETAILS).toString() + errors
+                            + qualityGateDetails,
+                    results.getMarkdownSummary(score, getChecksName(), showHeaders) + errors + qualityGateDetails
+                            + delta,
+                    conclusion, log);
+
+            awaitTask(metrics, "write metrics", metricsLog);
+            awaitTask(snapshot, "write the snapshot", snapshotLog);
+        }
+        log.merge(metricsLog);
+        log.merge(snapshotLog);
+        if (performance.isEnabled()) {
+            writePerformanceMetrics(log);
+        }
+        if (configurationName.isEmpty()) {
+            connection.logStatistics(log);
+        }
+        debugLog.close();
 
         log.logInfo("GitHub Action has finished");
     }
@@ -101,10 +260,117 @@ public class QualityMonitor extends AutoGradingRunner {
     private void writeMetrics(final AggregatedScore score, final FilteredLog log) {
         try {
             var metrics = extractAllMetrics(score, log);
-            Files.writeString(Path.of("metrics.env"), metrics);
+            Files.writeString(JobEnvironment.resolve(getFileName(METRICS_FILE)), metrics);
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't write metrics to '%s'", getFileName(METRICS_FILE));
+        }
+    }
+
+    /**
+     * Writes a compact snapshot of the results if the environment variable {@code WRITE_SNAPSHOT} is set. Runs on the
+     * main branch use this snapshot as reference for the delta of subsequent pull request runs.
+     */
+    private void writeSnapshot(final AggregatedScore score, final FilteredLog log) {
+        if (getEnv("WRITE_SNAPSHOT").isBlank()) {
+            return;
+        }
+        try {
+            var resolver = GitHubAnnotationsBuilder.createPathResolver(List.of(), computeAbsolutePathPrefixToRemove());
+            var file = getFileName(SNAPSHOT_FILE);
+            QualitySnapshot.create(score, getCustomSha(log), resolver::resolve).write(JobEnvironment.resolve(file));
+            log.logInfo("Wrote snapshot of the results to '%s'", file);
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't write snapshot to '%s'", getFileName(SNAPSHOT_FILE));
+        }
+    }
+
+    /**
+     * Creates the delta to the reference snapshot of the main branch, if such a snapshot has been downloaded. If the
+     * environment variable {@code DELTA_SCOPE} is set to {@code changed-files}, then the results of the changed files
+     * are compared as well. Selecting the changed files visits all files and warnings of the reports once, but only
+     * the results of the changed files are computed and compared.
+     *
+     * @return the delta as Markdown table, or an empty string if there is no reference snapshot
+     */
+    private String createSnapshotDelta(final AggregatedScore score, final FilteredLog log) {
+        var referenceSnapshot = JobEnvironment.resolve(REFERENCE_SNAPSHOT).resolve(getFileName(SNAPSHOT_FILE));
+        if (!Files.exists(referenceSnapshot)) {
+            if (isChangedFilesDelta()) {
+                log.logInfo("Skipping delta of the changed files, no reference snapshot found at "
+                        + referenceSnapshot.toAbsolutePath());
+            }
+            return StringUtils.EMPTY;
+        }
+        return QualitySnapshot.read(referenceSnapshot, log)
+                .map(snapshot -> createSnapshotDelta(snapshot, score, log))
+                .orElse(StringUtils.EMPTY);
+    }
+
+    private String createSnapshotDelta(final QualitySnapshot reference, final AggregatedScore score,
+            final FilteredLog log) {
+        var delta = reference.createDeltaMarkdown(score.getMetrics(Scope.PROJECT));
+        if (!isChangedFilesDelta()) {
+            return delta;
+        }
+        try (var _ = performance.start("Computing the delta of the changed files")) {
+            var changedFiles = getModifiedFilesAndLines().keySet();
+            var prefix = computeAbsolutePathPrefixToRemove();
+            var keys = GitHubAnnotationsBuilder.createPathResolver(List.of(), prefix);
+            var resolver = GitHubAnnotationsBuilder.createPathResolver(changedFiles, prefix);
+            var current = QualitySnapshot.create(score, getCustomSha(log), keys::resolve,
+                    key -> changedFiles.contains(resolver.resolve(key)));
+            log.logInfo("Computing the delta of %d changed files", changedFiles.size());
+
+            return delta + reference.createChangedFilesDeltaMarkdown(current, changedFiles, resolver::resolve);
+        }
+    }
+
+    private boolean isChangedFilesDelta() {
+        return Strings.CI.equals(getEnv("DELTA_SCOPE"), DELTA_SCOPE_CHANGED_FILES);
+    }
+
+    private void writePerformanceMetrics(final FilteredLog log) {
+        try {
+            Files.writeString(JobEnvironment.resolve(getFileName(METRICS_FILE)), performance.toMetrics(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
         }
         catch (IOException exception) {
-            log.logException(exception, "Can't write metrics to 'metrics.env'");
+            log.logException(exception, "Can't write performance metrics to '%s'", getFileName(METRICS_FILE));
+        }
+    }
+
+    /**
+     * Scans the workspace for the report files of each configured tool. The autograding model does not expose the
+     * parsing time of the individual tools, so the number and size of the report files and the number of records are
+     * reported. The scan is an additional walk through the workspace, so it runs only if the performance report is
+     * enabled.
+     */
+    private void scanReportPatterns(final AggregatedScore score, final FilteredLog log) {
+        try (var _ = performance.start("Scanning the report patterns")) {
+            var configuration = StringUtils.defaultIfEmpty(this.configuration, getEnv("CONFIG"));
+            if (configuration.isBlank()) {
+                configuration = readDefaultConfiguration();
+            }
+            performance.addTools(new ReportPatternScanner(JobEnvironment.resolve("")).scan(configuration,
+                    score.getRoundedMetrics(), log));
+            for (var tool : performance.getToolsOverBudget()) {
+                log.logInfo("The report files of %s have a size of %d MB (budget: %d MB)", tool.name(),
+                        tool.bytes() / (1024 * 1024), performance.getBudget());
+            }
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't read the default configuration");
+        }
+    }
+
+    private String readDefaultConfiguration() throws IOException {
+        try (var defaultConfiguration = QualityMonitor.class.getResourceAsStream(getDefaultConfigurationPath())) {
+            if (defaultConfiguration == null) {
+                return "{}";
+            }
+            return new String(defaultConfiguration.readAllBytes(), StandardCharsets.UTF_8);
         }
     }
 
@@ -115,120 +381,290 @@ public class QualityMonitor extends AutoGradingRunner {
         var markdownErrors = results.getMarkdownErrors(score, exception);
         addComment(score, results.getTextSummary(score, getChecksName()),
                 markdownErrors, markdownErrors, markdownErrors, Conclusion.FAILURE, log);
+        debugLog.close();
     }
 
+    /**
+     * Publishes the results to GitHub and stops the flight recording. The recording is stopped on every path, even if
+     * the results could not be published. If a check run has been created, then its details are finally updated with
+     * the performance report and the summary of the recording.
+     */
     private void addComment(final AggregatedScore score, final String textSummary,
             final String markdownDetails, final String markdownSummary, final String prSummary,
             final Conclusion conclusion, final FilteredLog log) {
+        Optional<PublishedCheckRun> published = Optional.empty();
+        try {
+            published = publish(score, textSummary, markdownDetails, markdownSummary, prSummary, conclusion, log);
+        }
+        finally {
+            var profile = recording.stop(log).map(Summary::toMarkdown).orElse(StringUtils.EMPTY);
+            if (published.isPresent() && (performance.isEnabled() || !profile.isEmpty())) {
+                publishReports(published.get(), markdownDetails, profile, log);
+            }
+        }
+    }
+
+    /**
+     * Publishes the results to GitHub. The independent requests run concurrently on virtual threads: the check run is
+     * created while the previous comment is searched. As soon as the check run is available, the new comment and the
+     * annotations are sent concurrently. Each task writes to its own log, these logs are merged in a fixed order after
+     * all tasks have been finished, so the output does not depend on the timing of the requests.
+     *
+     * @return the created check run, or an empty optional if the check run could not be created
+     */
+    private Optional<PublishedCheckRun> publish(final AggregatedScore score, final String textSummary,
+            final String markdownDetails, final String markdownSummary, final String prSummary,
+            final Conclusion conclusion, final FilteredLog log) {
         try {
             var repository = getEnv("GITHUB_REPOSITORY");
             if (repository.isBlank()) {
                 log.logError("No GITHUB_REPOSITORY defined - skipping");
 
-                return;
+                return Optional.empty();
             }
 
             var oAuthToken = getEnv("GITHUB_TOKEN");
             if (oAuthToken.isBlank()) {
                 log.logError("No valid GITHUB_TOKEN found - skipping");
-                return;
+                return Optional.empty();
             }
 
-            var githubBuilder = new GitHubBuilder().withOAuthToken(oAuthToken);
-            var apiUrl = getEnv("GITHUB_API_URL");
-            if (!apiUrl.isBlank()) {
-                githubBuilder.withEndpoint(apiUrl);
-            }
-
-            var github = githubBuilder.build();
-            var check = github.getRepository(repository)
+            var github = connection.getGitHub();
+            var gitHubRepository = github.getRepository(repository);
+            var check = gitHubRepository
                     .createCheckRun(createMetricsBasedTitle(score, conclusion, log), getCustomSha(log))
                     .withStatus(Status.COMPLETED)
                     .withStartedAt(Date.from(Instant.now()))
                     .withConclusion(conclusion);
 
             var summaryWithFooter = markdownSummary + "\n\n<hr />\n\nCreated by " + getVersionLink(log);
-            var output = new Output(textSummary, summaryWithFooter).withText(markdownDetails);
+            check.add(new Output(textSummary, summaryWithFooter).withText(markdownDetails));
+            var outputText = new OutputText(textSummary, summaryWithFooter);
+
+            var checkLog = new FilteredLog("Errors while creating the check:");
+            var commentLog = new FilteredLog("Errors while commenting the pull request:");
+            var annotationsLog = new FilteredLog("Errors while creating annotations:");
+            Optional<GHCheckRun> created;
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var run = executor.submit(() -> createChecksRun(checkLog, check));
+                var previousComment = executor.submit(
+                        () -> findPreviousComment(github, repository, getEnv("PR_NUMBER"), commentLog));
+                var comment = executor.submit(
+                        () -> commentPullRequest(prSummary, run, previousComment, repository, github, commentLog));
+                var annotations = executor.submit(
+                        () -> attachAnnotations(score, gitHubRepository, run, outputText, annotationsLog));
+
+                awaitTask(comment, "comment the pull request", commentLog);
+                awaitTask(annotations, "create annotations", annotationsLog);
+                created = await(run);
+            }
+            log.merge(checkLog);
+            log.merge(commentLog);
+            log.merge(annotationsLog);
+
+            return created.map(checkRun -> new PublishedCheckRun(gitHubRepository, checkRun, outputText));
+        }
+        catch (IOException exception) {
+            logException(log, exception, "Could create GitHub comments");
+
+            return Optional.empty();
+        }
+    }
 
-            attachAnnotations(score, output, log);
-            check.add(output);
+    /**
+     * A check run that has been created for the results of this run.
+     *
+     * @param repository
+     *         the repository of the check run
+     * @param checkRun
+     *         the check run
+     * @param outputText
+     *         the title and summary of the check run
+     */
+    private record PublishedCheckRun(GHRepository repository, GHCheckRun checkRun, OutputText outputText) {
+    }
 
-            var checksResult = createChecksRun(log, check);
+    /**
+     * Waits for the result of the specified task.
+     *
+     * @param task
+     *         the task to wait for
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the task
+     * @throws IOException
+     *         if the task failed with an {@link IOException} or has been interrupted
+     */
+    private static <T> T await(final Future<T> task) throws IOException {
+        try {
+            return task.get();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
 
-            commentPullRequest(prSummary, checksResult, repository, github, log);
+            throw new InterruptedIOException("Interrupted while waiting for a task: " + exception.getMessage());
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    private static void awaitTask(final Future<?> task, final String name, final FilteredLog log) {
+        try {
+            await(task);
         }
         catch (IOException exception) {
-            logException(log, exception, "Could create GitHub comments");
+            log.logException(exception, "Could not %s", name);
+        }
+    }
+
+    /**
+     * Appends the performance report and the summary of the flight recording to the details of the check run. The
+     * reports are published after all other requests have been finished, so they contain these requests as well.
+     */
+    private void publishReports(final PublishedCheckRun published, final String markdownDetails,
+            final String profile, final FilteredLog log) {
+        var performanceReport = performance.isEnabled() ? performance.toMarkdown() : StringUtils.EMPTY;
+        var output = new Output(published.outputText().title(), published.outputText().summary())
+                .withText(markdownDetails + performanceReport + profile);
+        try {
+            var updated = connection.getScheduler().execute(Priority.ANNOTATIONS, () -> published.repository()
+                    .updateCheckRun(published.checkRun().getId()).add(output).create());
+            if (updated.isEmpty()) {
+                log.logInfo("Skipped performance report and profile to save the remaining GitHub rate limit");
+            }
+        }
+        catch (IOException exception) {
+            logException(log, exception, "Could not publish the performance report and profile");
         }
     }
 
-    private void attachAnnotations(final AggregatedScore score, final Output output, final FilteredLog log) {
-        if (getEnv("SKIP_ANNOTATIONS").isEmpty()) {
-            var annotationBuilder = new GitHubAnnotationsBuilder(getModifiedFilesAndLines(), output,
-                    computeAbsolutePathPrefixToRemove(), log);
+    private Optional<UploadResult> attachAnnotations(final AggregatedScore score, final GHRepository repository,
+            final Future<Optional<GHCheckRun>> run, final OutputText outputText, final FilteredLog log)
+            throws IOException {
+        var checkRun = await(run);
+        if (checkRun.isEmpty() || !getEnv("SKIP_ANNOTATIONS").isEmpty()) {
+            return Optional.empty();
+        }
+        try (var _ = performance.start("Creating the annotations");
+                var debug = debugLog.channel("annotations");
+                var uploader = new AnnotationUploader(repository, connection.getScheduler(), checkRun.get().getId(),
+                        outputText, log)) {
+            var annotationBuilder = new GitHubAnnotationsBuilder(getModifiedFilesAndLines(), uploader::add,
+                    computeAbsolutePathPrefixToRemove(), log, debug);
             annotationBuilder.createAnnotations(score);
+
+            return Optional.of(uploader.finish());
         }
     }
 
-    private void commentPullRequest(final String prSummary, final String checksResult, final String repository,
-            final GitHub github, final FilteredLog log) throws IOException {
+    private void commentPullRequest(final String prSummary, final Future<Optional<GHCheckRun>> run,
+            final Future<Optional<PreviousComment>> previousCommentTask, final String repository, final GitHub github,
+            final FilteredLog log) {
         var prNumber = getEnv("PR_NUMBER");
         if (prNumber.isBlank()) {
             return;
         }
 
-        var strategy = getEnv("COMMENTS_STRATEGY");
-        var previousComment = findPreviousComment(github, repository, prNumber);
+        try (var _ = performance.start("Commenting the pull request")) {
+            var checksResult = await(run)
+                    .map(checkRun -> "More details are shown in the [GitHub Checks Result](%s)."
+                            .formatted(checkRun.getDetailsUrl().toString()))
+                    .orElse("A detailed GitHub Checks Result could not be created, see error log.");
+            var strategy = getEnv("COMMENTS_STRATEGY");
+            var previousComment = await(previousCommentTask);
+            var scheduler = connection.getScheduler();
+
+            if ((Strings.CI.equals(strategy, "REMOVE") || StringUtils.isEmpty(strategy))
+                    && previousComment.isPresent()) {
+                if (scheduler.execute(Priority.COMMENT, () -> delete(previousComment.get())).isPresent()) {
+                    log.logInfo("Successfully deleted previous comment for PR#" + prNumber);
+                }
+            }
 
-        if ((Strings.CI.equals(strategy, "REMOVE") || StringUtils.isEmpty(strategy))
-                && previousComment.isPresent()) {
-            previousComment.get().delete();
-            log.logInfo("Successfully deleted previous comment for PR#" + prNumber);
-        }
+            var comment = createComment(prSummary, checksResult, log);
+            if (Strings.CI.equals(strategy, "UPDATE") && previousComment.isPresent()) {
+                if (scheduler.execute(Priority.COMMENT, () -> update(previousComment.get(), comment)).isPresent()) {
+                    log.logInfo("Successfully replaced comment for PR#" + prNumber);
+                }
+                else {
+                    log.logError("Skipped comment for PR#%s to save the remaining GitHub rate limit", prNumber);
+                }
+                return;
+            }
 
-        var comment = createComment(prSummary, checksResult, log);
-        if (Strings.CI.equals(strategy, "UPDATE") && previousComment.isPresent()) {
-            previousComment.get().update(comment);
-            log.logInfo("Successfully replaced comment for PR#" + prNumber);
-            return;
+            var created = scheduler.execute(Priority.COMMENT, () -> github.getRepository(repository)
+                    .getPullRequest(Integer.parseInt(prNumber))
+                    .comment(comment));
+            if (created.isPresent()) {
+                log.logInfo("Successfully created new comment for PR#" + prNumber);
+            }
+            else {
+                log.logError("Skipped comment for PR#%s to save the remaining GitHub rate limit", prNumber);
+            }
+        }
+        catch (IOException exception) {
+            logException(log, exception, "Could not comment PR#" + prNumber);
         }
+    }
 
-        github.getRepository(repository)
-                .getPullRequest(Integer.parseInt(prNumber))
-                .comment(comment);
-        log.logInfo("Successfully created new comment for PR#" + prNumber);
+    private boolean delete(final PreviousComment comment) throws IOException {
+        comment.delete();
+
+        return true;
+    }
+
+    private boolean update(final PreviousComment comment, final String body) throws IOException {
+        comment.update(body);
+
+        return true;
     }
 
     private String createComment(final String prSummary, final String checksResult, final FilteredLog log) {
         var footer = "Created by %s. %s".formatted(getVersionLink(log), checksResult);
-        return COMMENT_MARKER + "\n\n" + prSummary + "\n\n<hr />\n\n" + footer + "\n";
+        return getCommentMarker() + "\n\n" + prSummary + "\n\n<hr />\n\n" + footer + "\n";
     }
 
-    private Optional<GHIssueComment> findPreviousComment(final GitHub github,
-            final String repository, final String prNumber) throws IOException {
+    private Optional<PreviousComment> findPreviousComment(final GitHub github,
+            final String repository, final String prNumber, final FilteredLog log) throws IOException {
+        if (prNumber.isBlank()) {
+            return Optional.empty();
+        }
+        try (var _ = performance.start("Finding the previous comment")) {
+            return new GraphQlCommentFinder(connection.getGraphQlClient())
+                    .find(repository, Integer.parseInt(prNumber), getCommentMarker());
+        }
+        catch (IOException exception) {
+            log.logInfo("Can't find previous comment with GraphQL (%s), scanning all comments of PR#%s",
+                    exception.getMessage(), prNumber);
+        }
+
         var comments = github.getRepository(repository)
                 .getPullRequest(Integer.parseInt(prNumber))
                 .listComments();
         for (var comment : comments) {
-            if (comment.getBody().contains(COMMENT_MARKER)) {
-                return Optional.of(comment);
+            if (comment.getBody().contains(getCommentMarker())) {
+                return Optional.of(PreviousComment.of(comment));
             }
         }
         return Optional.empty();
     }
 
-    private String createChecksRun(final FilteredLog log, final GHCheckRunBuilder check) {
-        try {
-            var run = check.create();
-            log.logInfo("Successfully created check " + run);
+    private Optional<GHCheckRun> createChecksRun(final FilteredLog log, final GHCheckRunBuilder check) {
+        try (var _ = performance.start("Creating the check run")) {
+            var run = connection.getScheduler().execute(Priority.CHECK_RUN, check::create);
+            run.ifPresent(checkRun -> log.logInfo("Successfully created check " + checkRun));
 
-            return "More details are shown in the [GitHub Checks Result](%s).".formatted(
-                    run.getDetailsUrl().toString());
+            return run;
         }
         catch (IOException exception) {
             logException(log, exception, "Could not create check");
 
-            return "A detailed GitHub Checks Result could not be created, see error log.";
+            return Optional.empty();
         }
     }
 
@@ -251,18 +687,51 @@ public class QualityMonitor extends AutoGradingRunner {
     }
 
     String extractAllMetrics(final AggregatedScore score, final FilteredLog log) {
-        var metrics = new StringBuilder();
-        score.getRoundedMetrics().forEach((metric, value) ->
-                metrics.append(String.format(Locale.ENGLISH, "%s=%s%n", metric, value)));
+        var metrics = formatMetrics(score.getRoundedMetrics());
         log.logInfo("---------------");
         log.logInfo("Metrics Summary");
         log.logInfo("---------------");
-        log.logInfo(metrics.toString());
+        log.logInfo(metrics);
+        return metrics;
+    }
+
+    /**
+     * Formats the specified metrics as lines of key-value pairs.
+     *
+     * @param roundedMetrics
+     *         the metrics to format
+     *
+     * @return the formatted metrics
+     */
+    static String formatMetrics(final Map<String, Integer> roundedMetrics) {
+        var metrics = new StringBuilder(roundedMetrics.size() * 16);
+        roundedMetrics.forEach((metric, value) ->
+                metrics.append(String.format(Locale.ENGLISH, "%s=%s%n", metric, value)));
         return metrics.toString();
     }
 
     private String getChecksName() {
-        return StringUtils.defaultIfBlank(System.getenv("CHECKS_NAME"), getDisplayName());
+        var checksName = StringUtils.defaultIfBlank(getEnv("CHECKS_NAME"), getDisplayName());
+        if (configurationName.isEmpty()) {
+            return checksName;
+        }
+        return "%s (%s)".formatted(checksName, configurationName);
+    }
+
+    private String getCommentMarker() {
+        return COMMENT_MARKER.formatted(configurationName.isEmpty() ? StringUtils.EMPTY : "-" + configurationName);
+    }
+
+    /**
+     * Returns the name of a generated file. The files of a named configuration get the name of the configuration as
+     * suffix, e.g., {@code metrics-backend.env}.
+     */
+    private String getFileName(final String fileName) {
+        if (configurationName.isEmpty()) {
+            return fileName;
+        }
+        return "%s-%s.%s".formatted(StringUtils.substringBeforeLast(fileName, "."), configurationName,
+                StringUtils.substringAfterLast(fileName, "."));
     }
 
     private String computeAbsolutePathPrefixToRemove() {
@@ -271,7 +740,7 @@ public class QualityMonitor extends AutoGradingRunner {
     }
 
     private String getEnv(final String key) {
-        return StringUtils.defaultString(System.getenv(key));
+        return JobEnvironment.getEnv(key);
     }
 
     /**
@@ -330,11 +799,16 @@ public class QualityMonitor extends AutoGradingRunner {
         };
     }
 
+    private String createMetricsBasedTitle(final AggregatedScore score, final Conclusion conclusion,
+            final FilteredLog log) {
+        return createMetricsBasedTitle(score.getMetrics(Scope.PROJECT), conclusion, log);
+    }
+
     /**
      * Creates a title based on the metrics.
      *
-     * @param score
-     *         the aggregated score
+     * @param metrics
+     *         the metrics of the project
      * @param conclusion
      *         the conclusion
      * @param log
@@ -342,7 +816,7 @@ public class QualityMonitor extends AutoGradingRunner {
      *
      * @return the title
      */
-    private String createMetricsBasedTitle(final AggregatedScore score, final Conclusion conclusion,
+    String createMetricsBasedTitle(final Map<String, Double> metrics, final Conclusion conclusion,
             final FilteredLog log) {
         var titleMetric = StringUtils.defaultIfBlank(
                 StringUtils.lowerCase(getEnv("TITLE_METRIC")),
@@ -352,8 +826,6 @@ public class QualityMonitor extends AutoGradingRunner {
             return createDefaultTitle(conclusion, log);
         }
 
-        var metrics = score.getMetrics(Scope.PROJECT);
-
         if (!metrics.containsKey(titleMetric)) {
             log.logError("Requested title metric '%s' not found in metrics: %s", titleMetric, metrics.keySet());
             log.logError("Falling back to default metric %s", DEFAULT_TITLE_METRIC);
@@ -394,6 +866,24 @@ public class QualityMonitor extends AutoGradingRunner {
 
     @Override
     protected Map<String, Set<Integer>> extractModifiedLinesFromDiff(final FilteredLog log) {
+        var changedLines = prefetchModifiedLines();
+        changedLines.setLog(log);
+
+        return changedLines;
+    }
+
+    private Map<String, Set<Integer>> loadModifiedLines(final FilteredLog log) {
+        try (var _ = performance.start("Loading the changed lines")) {
+            return loadModifiedLinesFromSource(log);
+        }
+    }
+
+    private Map<String, Set<Integer>> loadModifiedLinesFromSource(final FilteredLog log) {
+        var diffSource = getEnv("DIFF_SOURCE");
+        if (Strings.CI.equals(diffSource, DIFF_SOURCE_GIT)) {
+            return extractModifiedLinesFromGit(log);
+        }
+
         var prNumber = getEnv("PR_NUMBER");
         if (StringUtils.isBlank(prNumber)) {
             log.logInfo("No PR_NUMBER environment variable set, skipping diff extraction");
@@ -402,16 +892,38 @@ public class QualityMonitor extends AutoGradingRunner {
 
         var pr = Integer.parseInt(prNumber);
         var repository = getEnv("GITHUB_REPOSITORY");
-        var token = getEnv("GITHUB_TOKEN");
-        var apiUrl = getEnv("GITHUB_API_URL");
-        var diffProvider = new GitHubDiffProvider();
+        var diffProvider = new GitHubDiffProvider(connection, debugLog);
+
+        if (Strings.CI.equals(diffSource, DIFF_SOURCE_FILES)) {
+            return diffProvider.loadChangedLines(repository, log, pr);
+        }
+        return diffProvider.loadChangedLinesFromDiff(repository, log, pr);
+    }
+
+    private Map<String, Set<Integer>> extractModifiedLinesFromGit(final FilteredLog log) {
+        var base = getEnv("DIFF_BASE");
+        if (base.isBlank()) {
+            var targetBranch = getEnv("GITHUB_BASE_REF");
+            if (targetBranch.isBlank()) {
+                log.logInfo("No DIFF_BASE or GITHUB_BASE_REF environment variable set, skipping diff extraction");
+                return Map.of();
+            }
+            base = "origin/" + targetBranch;
+        }
+        var head = StringUtils.firstNonBlank(getEnv("SHA"), getEnv("GITHUB_SHA"), "HEAD");
 
-        return diffProvider.loadChangedLines(repository, token, apiUrl, log, pr);
+        return new GitDiffProvider(JobEnvironment.resolve("")).loadChangedLines(base, head, log);
     }
 
     @Override
     protected Optional<Path> fetchDeltaReportsFromPreviousPipeline(final FilteredLog log) {
-        var referencePath = Path.of(REFERENCE_REPORTS);
+        var referenceSnapshot = JobEnvironment.resolve(REFERENCE_SNAPSHOT).resolve(getFileName(SNAPSHOT_FILE));
+        if (Files.exists(referenceSnapshot)) {
+            log.logInfo("Using reference snapshot %s instead of parsing the reference reports",
+                    referenceSnapshot.toAbsolutePath());
+            return Optional.empty();
+        }
+        var referencePath = JobEnvironment.resolve(REFERENCE_REPORTS);
         if (Files.exists(referencePath)) {
             log.logInfo("Creating delta with reference reports from " + referencePath.toAbsolutePath());
 
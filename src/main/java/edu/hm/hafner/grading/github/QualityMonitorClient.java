@@ -0,0 +1,135 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sends the workspace and the environment variables of a workflow step as a job to the {@link QualityMonitorDaemon}
+ * and prints the log of the job. The client uses only classes of the JDK, so it starts in a few milliseconds and can
+ * be launched as a single source file: {@code java QualityMonitorClient.java [socket]}.
+ */
+final class QualityMonitorClient {
+    /** The start of the response of the daemon if the job has been rejected. */
+    static final String REJECTED = "Quality monitor daemon rejected the job: ";
+
+    private static final String DEFAULT_SOCKET = "quality-monitor/daemon.sock";
+
+    /**
+     * Sends the job to the daemon.
+     *
+     * @param args
+     *         the path of the socket (optional, the default is the value of {@code QUALITY_MONITOR_SOCKET} or
+     *         {@code quality-monitor/daemon.sock})
+     */
+    static void main(final String... args) {
+        var socket = args.length > 0 ? args[0] : System.getenv("QUALITY_MONITOR_SOCKET");
+        if (socket == null || socket.isBlank()) {
+            socket = DEFAULT_SOCKET;
+        }
+        try {
+            if (!send(Path.of(socket), Path.of("").toAbsolutePath(), System.getenv(), System.out)) {
+                System.exit(1);
+            }
+        }
+        catch (IOException exception) {
+            System.err.printf("Can't connect to the quality monitor daemon at %s: %s%n", socket, exception);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sends the job to the daemon and copies the log of the job to the specified output.
+     *
+     * @param socket
+     *         the path of the socket of the daemon
+     * @param workspace
+     *         the workspace of the job
+     * @param environment
+     *         the environment variables of the job
+     * @param output
+     *         the output for the log of the job
+     *
+     * @return {@code true} if the daemon accepted the job, {@code false} if the daemon rejected the job
+     * @throws IOException
+     *         if the daemon cannot be reached
+     */
+    static boolean send(final Path socket, final Path workspace, final Map<String, String> environment,
+            final OutputStream output) throws IOException {
+        try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+
+            var request = ByteBuffer.wrap(createRequest(workspace, environment).getBytes(StandardCharsets.UTF_8));
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            channel.shutdownOutput();
+
+            var response = new BufferedInputStream(Channels.newInputStream(channel));
+            response.mark(REJECTED.length());
+            var start = new String(response.readNBytes(REJECTED.length()), StandardCharsets.UTF_8);
+            response.reset();
+
+            response.transferTo(output);
+            output.flush();
+
+            return !REJECTED.equals(start);
+        }
+    }
+
+    /**
+     * Creates the job as a single line of JSON.
+     *
+     * @param workspace
+     *         the workspace of the job
+     * @param environment
+     *         the environment variables of the job
+     *
+     * @return the job
+     */
+    static String createRequest(final Path workspace, final Map<String, String> environment) {
+        var json = new StringBuilder(4096);
+        json.append("{\"workspace\":").append(quote(workspace.toString())).append(",\"environment\":{");
+        var separator = "";
+        for (Map.Entry<String, String> variable : new TreeMap<>(environment).entrySet()) {
+            json.append(separator).append(quote(variable.getKey())).append(':').append(quote(variable.getValue()));
+            separator = ",";
+        }
+        return json.append("}}\n").toString();
+    }
+
+    private static String quote(final String value) {
+        var quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        quoted.append("\\u%04x".formatted((int) c));
+                    }
+                    else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private QualityMonitorClient() {
+        // prevents instantiation
+    }
+}
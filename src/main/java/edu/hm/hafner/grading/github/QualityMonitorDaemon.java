@@ -0,0 +1,266 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs the quality monitor as a long-running daemon on a self-hosted runner. Each run of the action in a Docker
+ * container starts a cold JVM that loads the parser registry and compiles the same parsing code again. The daemon
+ * keeps a single JVM alive and accepts jobs from the {@link QualityMonitorClient} over a Unix domain socket, so
+ * subsequent jobs reuse the loaded classes and the compiled code.
+ *
+ * <p>
+ * A job is a single line of JSON with the absolute path of the workspace and the environment variables of the action
+ * (the same variables that the Docker container gets), e.g., {@code {"workspace": "/runner/_work/repo/repo",
+ * "environment": {"GITHUB_TOKEN": "...", "CONFIG": "..."}}}. The jobs run concurrently on virtual threads, each job
+ * uses its own {@link JobEnvironment} and writes its log to its own connection. The workspaces of the jobs must be
+ * folders below the working directory of the daemon, e.g., the {@code _work} folder of the runner.
+ * </p>
+ *
+ * <p>
+ * The autograding model reads the quality gates from the environment variable {@code QUALITY_GATES} of the process.
+ * Therefore, jobs with other quality gates than the daemon are rejected, so that no result is graded against the
+ * wrong quality gates.
+ * </p>
+ *
+ * <p>
+ * A flight recording of the JDK records the whole JVM. Therefore, a job that is profiled with {@code PROFILE} waits
+ * until all running jobs have been finished and runs alone, so that its recording contains no activity of other jobs.
+ * </p>
+ *
+ * <p>
+ * The jobs contain the GitHub token, so the socket is created in a folder that is accessible by its owner only. The
+ * workspaces of the jobs are checked with their real paths, so a symbolic link cannot point outside of the working
+ * directory of the daemon.
+ * </p>
+ */
+final class QualityMonitorDaemon implements AutoCloseable {
+    /** The environment variable with the path of the socket. */
+    static final String SOCKET_VARIABLE = "QUALITY_MONITOR_SOCKET";
+    static final String DEFAULT_SOCKET = "quality-monitor/daemon.sock";
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+    private static final String QUALITY_GATES = "QUALITY_GATES";
+
+    private final Path socket;
+    private final Path root;
+    private final PrintStream log;
+    private final AtomicInteger jobs = new AtomicInteger();
+    /** Profiled jobs run exclusively, all other jobs run concurrently. */
+    private final ReadWriteLock isolation = new ReentrantReadWriteLock(true);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocketChannel server;
+
+    /**
+     * Starts the daemon and accepts jobs until the process is stopped.
+     *
+     * @param args
+     *         the path of the socket (optional, the default is the value of {@code QUALITY_MONITOR_SOCKET} or
+     *         {@code quality-monitor/daemon.sock})
+     *
+     * @throws IOException
+     *         if the socket cannot be created
+     */
+    static void main(final String... args) throws IOException {
+        var socket = args.length > 0 ? args[0]
+                : StringUtils.defaultIfBlank(System.getenv(SOCKET_VARIABLE), DEFAULT_SOCKET);
+        try (var daemon = new QualityMonitorDaemon(Path.of(socket), Path.of(""), System.out)) {
+            daemon.start();
+            daemon.serve();
+        }
+    }
+
+    /**
+     * Creates a new daemon.
+     *
+     * @param socket
+     *         the path of the Unix domain socket, the folder of the socket must be accessible by its owner only
+     * @param root
+     *         the folder that contains the workspaces of all jobs
+     * @param log
+     *         the log of the daemon, the log of a job is sent to its client
+     */
+    QualityMonitorDaemon(final Path socket, final Path root, final PrintStream log) {
+        this.socket = socket;
+        this.root = root.toAbsolutePath().normalize();
+        this.log = log;
+    }
+
+    /**
+     * Creates the socket in a folder that is accessible by its owner only. The folder is created if it does not exist
+     * yet.
+     *
+     * @throws IOException
+     *         if the socket cannot be created, or if the existing folder of the socket is accessible by other users
+     */
+    synchronized void start() throws IOException {
+        createPrivateFolder(socket.toAbsolutePath().getParent());
+        Files.deleteIfExists(socket);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        log.printf("Quality monitor daemon is listening on %s for jobs below %s%n", socket.toAbsolutePath(), root);
+    }
+
+    private void createPrivateFolder(final Path folder) throws IOException {
+        try {
+            if (Files.notExists(folder)) {
+                Files.createDirectories(folder, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            }
+            var permissions = Files.getPosixFilePermissions(folder);
+            if (!OWNER_ONLY.containsAll(permissions)) {
+                throw new IOException(String.format(
+                        "The folder %s of the socket is accessible by other users (%s), restrict its permissions "
+                                + "to the owner (rwx------)", folder, PosixFilePermissions.toString(permissions)));
+            }
+        }
+        catch (UnsupportedOperationException _) {
+            log.println("Can't restrict the access to the folder of the socket " + folder);
+        }
+    }
+
+    /**
+     * Accepts jobs until the daemon is closed.
+     *
+     * @throws IOException
+     *         if the socket fails
+     */
+    void serve() throws IOException {
+        var channel = Objects.requireNonNull(server, "The daemon has not been started");
+        while (channel.isOpen()) {
+            try {
+                var client = channel.accept();
+                executor.submit(() -> handle(client));
+            }
+            catch (ClosedChannelException _) {
+                return; // the daemon has been closed
+            }
+        }
+    }
+
+    private void handle(final SocketChannel client) {
+        var number = jobs.incrementAndGet();
+        try (client; var output = new PrintStream(Channels.newOutputStream(client), true, StandardCharsets.UTF_8)) {
+            var request = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8)).readLine();
+            try {
+                var environment = parse(StringUtils.defaultString(request));
+                var profiled = environment.isProfiled();
+                var lock = profiled ? isolation.writeLock() : isolation.readLock();
+                lock.lock();
+                try {
+                    log.printf(profiled ? "Job %d started exclusively for profiling%n" : "Job %d started%n", number);
+                    var started = System.nanoTime();
+
+                    environment.run(() -> evaluate(output));
+
+                    log.printf("Job %d finished in %d ms%n", number,
+                            Duration.ofNanos(System.nanoTime() - started).toMillis());
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+            catch (IllegalArgumentException exception) {
+                output.println(QualityMonitorClient.REJECTED + exception.getMessage());
+                log.printf("Job %d rejected: %s%n", number, exception.getMessage());
+            }
+        }
+        catch (IOException exception) {
+            log.printf("Job %d failed: %s%n", number, exception.getMessage());
+        }
+    }
+
+    private void evaluate(final PrintStream output) {
+        var connection = GitHubConnection.fromEnvironment(PerformanceReport.fromEnvironment());
+        if (MonorepoMonitor.isEnabled()) {
+            new MonorepoMonitor(output, connection).run();
+        }
+        else {
+            var monitor = new QualityMonitor(output, connection);
+            monitor.prefetchModifiedLines();
+            monitor.run();
+        }
+    }
+
+    /**
+     * Parses the specified job.
+     *
+     * @param request
+     *         the job as a single line of JSON
+     *
+     * @return the environment of the job
+     * @throws IllegalArgumentException
+     *         if the job is not valid, or if the quality gates of the job differ from the quality gates of the daemon
+     */
+    JobEnvironment parse(final String request) {
+        JsonNode job;
+        try {
+            job = new ObjectMapper().readTree(request);
+        }
+        catch (IOException exception) {
+            throw new IllegalArgumentException("The job is no valid JSON: " + exception.getMessage(), exception);
+        }
+        if (job == null || !job.path("workspace").isTextual()) {
+            throw new IllegalArgumentException("The job has no workspace");
+        }
+
+        var variables = new HashMap<String, String>();
+        for (var iterator = job.path("environment").fields(); iterator.hasNext();) {
+            Map.Entry<String, JsonNode> variable = iterator.next();
+            variables.put(variable.getKey(), variable.getValue().asText());
+        }
+        if (!StringUtils.defaultString(variables.get(QUALITY_GATES))
+                .equals(StringUtils.defaultString(System.getenv(QUALITY_GATES)))) {
+            throw new IllegalArgumentException("The job uses other quality gates than the daemon: the autograding "
+                    + "model reads QUALITY_GATES from the environment of the daemon, so start a daemon with the "
+                    + "quality gates of this job");
+        }
+        return new JobEnvironment(toRealPath(root), toRealPath(Path.of(job.path("workspace").asText())), variables);
+    }
+
+    private Path toRealPath(final Path path) {
+        try {
+            return path.toRealPath();
+        }
+        catch (IOException exception) {
+            throw new IllegalArgumentException("The folder %s does not exist".formatted(path), exception);
+        }
+    }
+
+    /**
+     * Stops accepting jobs, waits for the running jobs, and removes the socket.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        executor.close();
+        Files.deleteIfExists(socket);
+    }
+}
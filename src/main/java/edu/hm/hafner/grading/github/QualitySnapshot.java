@@ -0,0 +1,370 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.analysis.Issue;
+import edu.hm.hafner.coverage.Coverage;
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Metric;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.AnalysisScore;
+import edu.hm.hafner.grading.CoverageScore;
+import edu.hm.hafner.grading.Scope;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A compact snapshot of the results of a run that serves as reference for the delta computation of subsequent runs.
+ * The snapshot contains the metrics of the project, the coverage counters of each file, and the fingerprints of the
+ * warnings in each file. It is stored as a small JSON file, so pull request runs can compute the delta to the main
+ * branch without downloading and parsing all reports of the main branch again.
+ *
+ * @param version
+ *         the version of the snapshot format
+ * @param sha
+ *         the commit of the snapshot
+ * @param metrics
+ *         the metrics of the whole project
+ * @param files
+ *         the results of each file, the key is the path of the file in the reports without the workspace prefix: this
+ *         is the repository-relative path for most reports, but a package path for some coverage reports. Since the
+ *         changed files of a pull request are not used to create the keys, the keys of the snapshots of different runs
+ *         can be compared with each other.
+ */
+record QualitySnapshot(int version, String sha, Map<String, Double> metrics, Map<String, FileResult> files) {
+    /** The current version of the snapshot format, snapshots of other versions are ignored. */
+    static final int VERSION = 1;
+
+    private static final List<Metric> COVERAGE_METRICS = List.of(Metric.LINE, Metric.BRANCH, Metric.MUTATION);
+
+    /**
+     * Creates a snapshot of the specified score.
+     *
+     * @param score
+     *         the score
+     * @param sha
+     *         the commit of the score
+     * @param cleanPath
+     *         removes the workspace prefix from the paths of the reports
+     *
+     * @return the snapshot
+     */
+    static QualitySnapshot create(final AggregatedScore score, final String sha,
+            final UnaryOperator<String> cleanPath) {
+        return create(score, sha, cleanPath, _ -> true);
+    }
+
+    /**
+     * Creates a snapshot of the specified score that contains only the results of the selected files. All file nodes
+     * of the coverage reports and all warnings of the analysis reports are still visited once to clean their paths and
+     * to check whether they are selected, so the cost is {@code O(files + warnings)} of the whole project. Only the
+     * counters and fingerprints of the selected files are computed and stored, so the snapshot and the subsequent
+     * comparison are proportional to the number of selected files.
+     *
+     * @param score
+     *         the score
+     * @param sha
+     *         the commit of the score
+     * @param cleanPath
+     *         removes the workspace prefix from the paths of the reports
+     * @param isSelected
+     *         determines whether the results of a file (given by its key) are part of the snapshot
+     *
+     * @return the snapshot
+     */
+    static QualitySnapshot create(final AggregatedScore score, final String sha,
+            final UnaryOperator<String> cleanPath, final Predicate<String> isSelected) {
+        var files = new TreeMap<String, FileResult>();
+
+        addCoverage(files, score.getCodeCoverageScores(), List.of(Metric.LINE, Metric.BRANCH), cleanPath, isSelected);
+        addCoverage(files, score.getMutationCoverageScores(), List.of(Metric.MUTATION), cleanPath, isSelected);
+
+        for (AnalysisScore analysisScore : score.getAnalysisScores()) {
+            for (Issue issue : analysisScore.getReport()) {
+                var path = cleanPath.apply(issue.getFileName());
+                if (isSelected.test(path)) {
+                    files.computeIfAbsent(path, _ -> FileResult.empty()).warnings().add(issue.getFingerprint());
+                }
+            }
+        }
+
+        return new QualitySnapshot(VERSION, sha, new TreeMap<>(score.getMetrics(Scope.PROJECT)), files);
+    }
+
+    /**
+     * Adds the counters of the specified metrics of each selected file. A metric of a file is owned by the first score
+     * that reports it: the counters of subsequent scores are ignored, so they neither overwrite nor double the counters
+     * (e.g., if the reports of the unit tests and the integration tests cover the same file).
+     */
+    private static void addCoverage(final Map<String, FileResult> files, final List<CoverageScore> scores,
+            final List<Metric> metrics, final UnaryOperator<String> cleanPath, final Predicate<String> isSelected) {
+        for (CoverageScore coverageScore : scores) {
+            for (FileNode file : coverageScore.getReport().getAllFileNodes()) {
+                var path = cleanPath.apply(file.getRelativePath());
+                if (!isSelected.test(path)) {
+                    continue;
+                }
+                var result = files.computeIfAbsent(path, _ -> FileResult.empty());
+                for (Metric metric : metrics) {
+                    file.getValue(metric).ifPresent(value -> {
+                        if (value instanceof Coverage coverage) {
+                            result.coverage().putIfAbsent(toKey(metric),
+                                    new Counter(coverage.getCovered(), coverage.getMissed()));
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private static String toKey(final Metric metric) {
+        return metric.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Reads the snapshot from the specified file.
+     *
+     * @param file
+     *         the JSON file
+     * @param log
+     *         the logger
+     *
+     * @return the snapshot, or an empty optional if the file cannot be read or has a different version
+     */
+    static Optional<QualitySnapshot> read(final Path file, final FilteredLog log) {
+        try {
+            var snapshot = new ObjectMapper().readValue(file.toFile(), QualitySnapshot.class);
+            if (snapshot.version() != VERSION) {
+                log.logInfo("Ignoring reference snapshot %s with version %d (supported version: %d)",
+                        file, snapshot.version(), VERSION);
+
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't read reference snapshot %s", file);
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes this snapshot to the specified file.
+     *
+     * @param file
+     *         the JSON file
+     *
+     * @throws IOException
+     *         if the file cannot be written
+     */
+    void write(final Path file) throws IOException {
+        Files.write(file, new ObjectMapper().writeValueAsBytes(this));
+    }
+
+    /**
+     * Creates a Markdown table that shows the delta of the specified metrics to the metrics of this snapshot.
+     *
+     * @param current
+     *         the metrics of the current run
+     *
+     * @return the Markdown table
+     */
+    String createDeltaMarkdown(final Map<String, Double> current) {
+        var markdown = new StringBuilder(512);
+        markdown.append("\n\n#### Delta to reference `%s`%n%n".formatted(abbreviate(sha)))
+                .append("| Metric | Reference | Current | Delta |\n|:---|---:|---:|---:|\n");
+
+        var names = new TreeSet<>(metrics.keySet());
+        names.addAll(current.keySet());
+        for (String name : names) {
+            var reference = metrics.get(name);
+            var value = current.get(name);
+            markdown.append(String.format(Locale.ENGLISH, "| %s | %s | %s | %s |%n", name,
+                    format(reference), format(value),
+                    reference == null || value == null ? "-" : String.format(Locale.ENGLISH, "%+.2f",
+                            value - reference)));
+        }
+        return markdown.toString();
+    }
+
+    /**
+     * Creates a Markdown table that shows the delta of the changed files to the results of this snapshot. Only the
+     * changed files are compared, the results of all other files are taken from this snapshot: the coverage of the
+     * project is estimated by replacing the counters of the changed files in the totals of this snapshot. The keys of
+     * both snapshots are mapped to the changed files with the specified resolver, so the results of all keys that
+     * refer to the same changed file (e.g., the package path of a coverage report and the repository-relative path
+     * of a warning) are combined.
+     *
+     * @param current
+     *         the snapshot of the current run that contains the results of the changed files
+     * @param changedFiles
+     *         the repository-relative paths of the changed files
+     * @param resolver
+     *         maps the keys of the snapshots to the repository-relative paths of the changed files
+     *
+     * @return the Markdown table
+     */
+    String createChangedFilesDeltaMarkdown(final QualitySnapshot current, final Collection<String> changedFiles,
+            final UnaryOperator<String> resolver) {
+        var markdown = new StringBuilder(1024);
+        markdown.append("\n\n#### Delta of the changed files\n\n")
+                .append("| File | Line | Branch | Mutation | New warnings | Fixed warnings |\n")
+                .append("|:---|---:|---:|---:|---:|---:|\n");
+
+        var empty = FileResult.empty();
+        var totals = new TreeMap<String, Counter>();
+        files.values().forEach(file -> file.coverage().forEach((metric, counter) -> totals.merge(metric, counter,
+                Counter::add)));
+        var estimated = new TreeMap<>(totals);
+
+        var references = groupByChangedFile(files, changedFiles, resolver);
+        var results = groupByChangedFile(current.files(), changedFiles, resolver);
+        for (String path : new TreeSet<>(changedFiles)) {
+            var reference = references.getOrDefault(path, empty);
+            var result = results.getOrDefault(path, empty);
+            if (reference.equals(empty) && result.equals(empty)) {
+                continue;
+            }
+            markdown.append("| `%s` ".formatted(path));
+            for (Metric metric : COVERAGE_METRICS) {
+                var key = toKey(metric);
+                markdown.append("| ").append(formatDelta(reference.coverage().get(key), result.coverage().get(key)))
+                        .append(' ');
+                estimated.merge(key, reference.coverage().getOrDefault(key, Counter.ZERO).negate(), Counter::add);
+                estimated.merge(key, result.coverage().getOrDefault(key, Counter.ZERO), Counter::add);
+            }
+            markdown.append("| %d | %d |%n".formatted(
+                    countMissing(result.warnings(), reference.warnings()),
+                    countMissing(reference.warnings(), result.warnings())));
+        }
+
+        markdown.append("\nEstimated coverage of the project:");
+        for (Metric metric : COVERAGE_METRICS) {
+            var key = toKey(metric);
+            if (totals.containsKey(key)) {
+                markdown.append(" %s %s".formatted(key, formatDelta(totals.get(key), estimated.get(key))));
+            }
+        }
+        markdown.append('\n');
+
+        return markdown.toString();
+    }
+
+    private static Map<String, FileResult> groupByChangedFile(final Map<String, FileResult> results,
+            final Collection<String> changedFiles, final UnaryOperator<String> resolver) {
+        var changed = new HashSet<>(changedFiles);
+        var grouped = new HashMap<String, FileResult>();
+        results.forEach((key, result) -> {
+            var path = resolver.apply(key);
+            if (changed.contains(path)) {
+                grouped.merge(path, result, FileResult::add);
+            }
+        });
+        return grouped;
+    }
+
+    private String formatDelta(final Counter reference, final Counter current) {
+        if (current == null || current.total() == 0) {
+            return "-";
+        }
+        if (reference == null || reference.total() == 0) {
+            return String.format(Locale.ENGLISH, "%.2f%%", current.percentage());
+        }
+        return String.format(Locale.ENGLISH, "%.2f%% (%+.2f)", current.percentage(),
+                current.percentage() - reference.percentage());
+    }
+
+    /**
+     * Counts the fingerprints of the first list that are not part of the second list. Duplicate fingerprints are
+     * counted individually.
+     */
+    private int countMissing(final List<String> fingerprints, final List<String> others) {
+        var remaining = new HashMap<String, Integer>();
+        others.forEach(fingerprint -> remaining.merge(fingerprint, 1, Integer::sum));
+
+        var missing = 0;
+        for (String fingerprint : fingerprints) {
+            if (remaining.merge(fingerprint, -1, Integer::sum) < 0) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    private String format(final Double value) {
+        return value == null ? "-" : String.format(Locale.ENGLISH, "%.2f", value);
+    }
+
+    private String abbreviate(final String commit) {
+        return StringUtils.left(StringUtils.defaultIfBlank(commit, "unknown"), 7);
+    }
+
+    /**
+     * The results of a single file.
+     *
+     * @param coverage
+     *         the coverage counters of the file, the key is the name of the coverage metric
+     * @param warnings
+     *         the fingerprints of the warnings in the file
+     */
+    record FileResult(Map<String, Counter> coverage, List<String> warnings) {
+        static FileResult empty() {
+            return new FileResult(new TreeMap<>(), new ArrayList<>());
+        }
+
+        FileResult add(final FileResult other) {
+            var sum = empty();
+            sum.coverage().putAll(coverage);
+            other.coverage().forEach((metric, counter) -> sum.coverage().merge(metric, counter, Counter::add));
+            sum.warnings().addAll(warnings);
+            sum.warnings().addAll(other.warnings());
+            return sum;
+        }
+    }
+
+    /**
+     * The coverage counter of a metric.
+     *
+     * @param covered
+     *         the number of covered items
+     * @param missed
+     *         the number of missed items
+     */
+    record Counter(int covered, int missed) {
+        static final Counter ZERO = new Counter(0, 0);
+
+        Counter add(final Counter other) {
+            return new Counter(covered + other.covered, missed + other.missed);
+        }
+
+        Counter negate() {
+            return new Counter(-covered, -missed);
+        }
+
+        int total() {
+            return covered + missed;
+        }
+
+        double percentage() {
+            return covered * 100.0 / total();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package edu.hm.hafner.grading.github;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans the workspace for the report files of each tool of the configuration. For each tool the number and size of
+ * the files that match the pattern of the tool are determined. Just like the autograding model, the patterns are
+ * Ant-style patterns relative to the workspace, several patterns are separated by a comma.
+ *
+ * <p>
+ * The autograding model does not expose the parsing time of the individual tools. Since the parsing time of a tool
+ * grows with the size of its report files, the size is the indicator of expensive tools. The scan is an additional
+ * walk through the workspace that runs only if the performance report is enabled: the patterns of all tools are
+ * matched in a single walk.
+ * </p>
+ */
+class ReportPatternScanner {
+    private final Path workspace;
+
+    ReportPatternScanner(final Path workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Scans the workspace for the report files of each tool of the specified configuration.
+     *
+     * @param configuration
+     *         the JSON configuration of the run
+     * @param metrics
+     *         the metrics of the run, used to obtain the number of records of each tool
+     * @param log
+     *         the logger
+     *
+     * @return the results of the scan, one for each tool
+     */
+    List<ToolScan> scan(final String configuration, final Map<String, Integer> metrics, final FilteredLog log) {
+        try {
+            var tools = new ArrayList<JsonNode>();
+            collectTools(new ObjectMapper().readTree(configuration), tools);
+
+            var visitors = new ArrayList<MatchingVisitor>();
+            for (JsonNode tool : tools) {
+                var id = tool.path("id").asText();
+                var pattern = tool.path("pattern").asText();
+                var name = StringUtils.defaultIfBlank(tool.path("name").asText(), id);
+                visitors.add(new MatchingVisitor(id, name, pattern, createMatchers(pattern)));
+            }
+
+            Files.walkFileTree(workspace, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                    var relative = workspace.relativize(file);
+                    visitors.forEach(visitor -> visitor.visitFile(relative, attributes.size()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exception) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            return visitors.stream().map(visitor -> visitor.toScan(metrics.getOrDefault(visitor.id, -1))).toList();
+        }
+        catch (IOException exception) {
+            log.logException(exception, "Can't scan the report files of the configured tools");
+
+            return List.of();
+        }
+    }
+
+    private void collectTools(final JsonNode node, final List<JsonNode> tools) {
+        if (node.isObject() && node.path("pattern").isTextual()) {
+            tools.add(node);
+        }
+        else if (node.isContainerNode()) {
+            node.forEach(child -> collectTools(child, tools));
+        }
+    }
+
+    private List<PathMatcher> createMatchers(final String pattern) {
+        return Arrays.stream(StringUtils.split(pattern, ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .flatMap(glob -> createGlobMatchers(glob).stream())
+                .toList();
+    }
+
+    private List<PathMatcher> createGlobMatchers(final String glob) {
+        var fileSystem = FileSystems.getDefault();
+        var matcher = fileSystem.getPathMatcher("glob:" + glob);
+        if (glob.startsWith("**/")) { // in Ant patterns, the leading ** also matches no folder at all
+            return List.of(matcher, fileSystem.getPathMatcher("glob:" + glob.substring(3)));
+        }
+        return List.of(matcher);
+    }
+
+    /**
+     * Counts the files of a tool that match one of the patterns of the tool.
+     */
+    private static final class MatchingVisitor {
+        private final String id;
+        private final String name;
+        private final String pattern;
+        private final List<PathMatcher> matchers;
+
+        private int files;
+        private long bytes;
+
+        MatchingVisitor(final String id, final String name, final String pattern, final List<PathMatcher> matchers) {
+            this.id = id;
+            this.name = name;
+            this.pattern = pattern;
+            this.matchers = matchers;
+        }
+
+        void visitFile(final Path relative, final long size) {
+            if (matchers.stream().anyMatch(matcher -> matcher.matches(relative))) {
+                files++;
+                bytes += size;
+            }
+        }
+
+        ToolScan toScan(final int records) {
+            return new ToolScan(id, name, pattern, files, bytes, records);
+        }
+    }
+
+    /**
+     * The result of scanning the report files of a tool.
+     *
+     * @param id
+     *         the ID of the tool
+     * @param name
+     *         the name of the tool
+     * @param pattern
+     *         the pattern of the report files
+     * @param files
+     *         the number of matching files
+     * @param bytes
+     *         the total size of the matching files
+     * @param records
+     *         the number of records of the tool (e.g., warnings), or -1 if unknown
+     */
+    record ToolScan(String id, String name, String pattern, int files, long bytes, int records) {
+    }
+}
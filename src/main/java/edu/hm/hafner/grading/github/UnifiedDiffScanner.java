@@ -0,0 +1,224 @@
+package edu.hm.hafner.grading.github;
+
+/**
+ * Scans the hunks of a unified diff of a single file and reports the 1-based line numbers in the new file that were
+ * added or replaced by the patch. Only "+" lines inside hunks are considered; deletions ("-") and hunk context are
+ * not recorded. Hunk headers of the form {@code @@ -a,b +c,d @@} advance the new-file line pointer to {@code c}.
+ *
+ * <p>
+ * The scanner works directly on the characters of the patch: it neither splits the patch into line strings nor uses
+ * regular expressions to parse the hunk headers. Consecutive added lines are reported as a single range to the
+ * {@link AddedLinesConsumer}, so callers can store the results without boxing every single line number. Lines may be
+ * terminated by {@code \n} or {@code \r\n}.
+ * </p>
+ */
+class UnifiedDiffScanner {
+    private static final int NO_HUNK = -1;
+
+    private final AddedLinesConsumer consumer;
+
+    private int newLinePointer = NO_HUNK;
+    private int firstAddedLine = NO_HUNK;
+    private int lastAddedLine = NO_HUNK;
+    private int position;
+
+    /**
+     * Creates a new scanner that reports the added lines to the specified consumer.
+     *
+     * @param consumer
+     *         the consumer that receives the ranges of added lines
+     */
+    UnifiedDiffScanner(final AddedLinesConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Scans all lines of the specified patch and reports the added lines. Afterward, the scanner is reset so that it
+     * can be used for the patch of another file.
+     *
+     * @param patch
+     *         the unified diff text of a single file
+     */
+    void scan(final CharSequence patch) {
+        int length = patch.length();
+        int start = 0;
+        while (start < length) {
+            int end = indexOfNewLine(patch, start, length);
+            scanLine(patch, start, end);
+            start = end + 1;
+        }
+        finish();
+    }
+
+    private int indexOfNewLine(final CharSequence text, final int start, final int length) {
+        for (int i = start; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Scans the line that is located in the specified range of the given text. The range must not contain the
+     * terminating line feed, an optional trailing carriage return is ignored.
+     *
+     * @param text
+     *         the text that contains the line
+     * @param start
+     *         the index of the first character of the line (inclusive)
+     * @param end
+     *         the index of the end of the line (exclusive)
+     */
+    void scanLine(final CharSequence text, final int start, final int end) {
+        int lineEnd = end;
+        if (lineEnd > start && text.charAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd == start) {
+            return;
+        }
+
+        char marker = text.charAt(start);
+        if (marker == '@' && lineEnd - start > 1 && text.charAt(start + 1) == '@') {
+            int newStart = parseHunkHeader(text, start + 2, lineEnd);
+            if (newStart != NO_HUNK) {
+                newLinePointer = newStart;
+            }
+            return;
+        }
+
+        if (newLinePointer == NO_HUNK) { // before first hunk header
+            return;
+        }
+
+        switch (marker) {
+            case '+' -> {
+                // Added or replaced line in a new file
+                addLine(newLinePointer);
+                newLinePointer++;
+            }
+            case ' ' -> {
+                // context line, advances the new file pointer
+                newLinePointer++;
+            }
+            default -> {
+                // Removed line or other unknown line, does not advance the new file pointer
+            }
+        }
+    }
+
+    private void addLine(final int line) {
+        if (lastAddedLine != NO_HUNK && line == lastAddedLine + 1) {
+            lastAddedLine = line;
+        }
+        else {
+            flush();
+            firstAddedLine = line;
+            lastAddedLine = line;
+        }
+    }
+
+    private void flush() {
+        if (firstAddedLine != NO_HUNK) {
+            consumer.accept(firstAddedLine, lastAddedLine);
+        }
+        firstAddedLine = NO_HUNK;
+        lastAddedLine = NO_HUNK;
+    }
+
+    /**
+     * Reports the pending range of added lines and resets the scanner so that it can be used for the next file.
+     */
+    void finish() {
+        flush();
+        newLinePointer = NO_HUNK;
+    }
+
+    /**
+     * Parses the remainder of a hunk header {@code @@ -a[,b] +c[,d] @@ ...} that starts after the leading
+     * {@code @@}.
+     *
+     * @return the start line {@code c} in the new file, or {@link #NO_HUNK} if the header is malformed
+     */
+    private int parseHunkHeader(final CharSequence text, final int start, final int end) {
+        position = start;
+        if (!expect(text, end, ' ') || !expect(text, end, '-') || parseRange(text, end) == NO_HUNK
+                || !expect(text, end, ' ') || !expect(text, end, '+')) {
+            return NO_HUNK;
+        }
+        int newStart = parseRange(text, end);
+        if (newStart == NO_HUNK || !expect(text, end, ' ') || !expect(text, end, '@') || !expect(text, end, '@')) {
+            return NO_HUNK;
+        }
+        for (int i = position; i < end; i++) {
+            if (isLineTerminator(text.charAt(i))) { // the section heading must not contain line breaks
+                return NO_HUNK;
+            }
+        }
+        return newStart;
+    }
+
+    private boolean isLineTerminator(final char c) {
+        return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private boolean expect(final CharSequence text, final int end, final char expected) {
+        if (position < end && text.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a range of the form {@code start[,count]} and returns the start value.
+     */
+    private int parseRange(final CharSequence text, final int end) {
+        int rangeStart = parseNumber(text, end);
+        if (rangeStart != NO_HUNK && position < end && text.charAt(position) == ',') {
+            position++;
+            if (parseNumber(text, end) == NO_HUNK) {
+                return NO_HUNK;
+            }
+        }
+        return rangeStart;
+    }
+
+    private int parseNumber(final CharSequence text, final int end) {
+        int i = position;
+        long value = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            value = value * 10 + text.charAt(i) - '0';
+            if (value > Integer.MAX_VALUE) {
+                return NO_HUNK;
+            }
+            i++;
+        }
+        if (i == position) {
+            return NO_HUNK;
+        }
+        position = i;
+        return (int) value;
+    }
+
+    private boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Receives consecutive ranges of added lines.
+     */
+    @FunctionalInterface
+    interface AddedLinesConsumer {
+        /**
+         * Called for each range of consecutive lines that have been added to the new file.
+         *
+         * @param firstLine
+         *         the first added line (1-based, inclusive)
+         * @param lastLine
+         *         the last added line (1-based, inclusive)
+         */
+        void accept(int firstLine, int lastLine);
+    }
+}
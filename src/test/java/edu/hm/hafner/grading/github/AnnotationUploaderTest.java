@@ -0,0 +1,103 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import edu.hm.hafner.grading.github.AnnotationUploader.OutputText;
+import edu.hm.hafner.grading.github.AnnotationUploader.UploadResult;
+import edu.hm.hafner.grading.github.GitHubRequestScheduler.Priority;
+import edu.hm.hafner.grading.github.GitHubRequestScheduler.Request;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.kohsuke.github.GHCheckRun;
+import org.kohsuke.github.GHCheckRun.AnnotationLevel;
+import org.kohsuke.github.GHCheckRunBuilder;
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+import org.kohsuke.github.GHCheckRunBuilder.Output;
+import org.kohsuke.github.GHRepository;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnnotationUploaderTest {
+    private static final long CHECK_RUN_ID = 42L;
+    private static final OutputText OUTPUT = new OutputText("Title", "Summary");
+
+    private final GHCheckRunBuilder builder = mock(GHCheckRunBuilder.class);
+    private final GHRepository repository = mock(GHRepository.class);
+    private final GitHubRequestScheduler scheduler = mock(GitHubRequestScheduler.class);
+    private final FilteredLog log = new FilteredLog("Errors");
+
+    AnnotationUploaderTest() throws IOException {
+        when(repository.updateCheckRun(CHECK_RUN_ID)).thenReturn(builder);
+        when(builder.add(any(Output.class))).thenReturn(builder);
+        when(builder.create()).thenReturn(mock(GHCheckRun.class));
+        when(scheduler.execute(eq(Priority.ANNOTATIONS), any())).thenAnswer(this::send);
+    }
+
+    @Test
+    void shouldUploadPartialLastBatch() throws IOException {
+        var result = upload(7, 3);
+
+        assertThat(result.batches()).isEqualTo(3);
+        assertThat(result.annotations()).isEqualTo(7);
+        assertThat(result.failures()).isZero();
+        assertThat(result.dropped()).isZero();
+        verify(repository, times(3)).updateCheckRun(CHECK_RUN_ID);
+        assertThat(log.getInfoMessages()).contains("Uploaded 7 annotations in 3 batches (0 failed) in %d ms"
+                .formatted(result.duration().toMillis()));
+    }
+
+    @Test
+    void shouldNotSendRequestsWithoutAnnotations() throws IOException {
+        var result = upload(0, 3);
+
+        assertThat(result.batches()).isZero();
+        assertThat(result.annotations()).isZero();
+        verify(repository, never()).updateCheckRun(anyLong());
+    }
+
+    @Test
+    void shouldClampBatchSize() throws IOException {
+        assertThat(upload(120, 500).batches()).as("At most 50 annotations per request").isEqualTo(3);
+        assertThat(upload(4, 0).batches()).as("At least 1 annotation per request").isEqualTo(4);
+    }
+
+    @Test
+    void shouldCountFailedAndDroppedBatches() throws IOException {
+        when(builder.create()).thenThrow(new IOException("Server error")).thenReturn(mock(GHCheckRun.class));
+        when(scheduler.execute(eq(Priority.ANNOTATIONS), any()))
+                .thenAnswer(this::send)
+                .thenAnswer(this::send)
+                .thenReturn(Optional.empty());
+
+        var result = upload(7, 3);
+
+        assertThat(result.batches()).isEqualTo(1);
+        assertThat(result.failures()).isEqualTo(1);
+        assertThat(result.dropped()).isEqualTo(1);
+        assertThat(result.annotations()).isEqualTo(3);
+        assertThat(log.getErrorMessages()).contains("Could not upload 3 annotations: Server error");
+        assertThat(log.getInfoMessages())
+                .contains("Skipped 1 batches of annotations to save the remaining GitHub rate limit");
+    }
+
+    private UploadResult upload(final int count, final int batchSize) {
+        try (var uploader = new AnnotationUploader(repository, scheduler, CHECK_RUN_ID, OUTPUT, log, batchSize, 1)) {
+            for (int line = 1; line <= count; line++) {
+                uploader.add(new Annotation("Foo.java", line, line, AnnotationLevel.WARNING, "Warning " + line));
+            }
+            return uploader.finish();
+        }
+    }
+
+    private Optional<?> send(final InvocationOnMock invocation) throws IOException {
+        Request<?> request = invocation.getArgument(1);
+
+        return Optional.ofNullable(request.send());
+    }
+}
@@ -0,0 +1,43 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedSelectionTest {
+    @Test
+    void shouldKeepBestElements() {
+        var selection = new BoundedSelection<Integer>(3, Comparator.naturalOrder());
+
+        IntStream.of(5, 1, 9, 3, 7, 2, 8).forEach(selection::offer);
+
+        assertThat(selection.getOffered()).isEqualTo(7);
+        assertThat(selection.getSelected()).isEqualTo(3);
+        assertThat(selection.drain(Comparator.naturalOrder())).containsExactly(7, 8, 9);
+        assertThat(selection.getSelected()).isZero();
+    }
+
+    @Test
+    void shouldRejectWorseElementsWhenFull() {
+        var selection = new BoundedSelection<Integer>(2, Comparator.naturalOrder());
+
+        assertThat(selection.offer(5)).isTrue();
+        assertThat(selection.offer(6)).isTrue();
+        assertThat(selection.offer(4)).isFalse();
+        assertThat(selection.offer(7)).isTrue();
+
+        assertThat(selection.drain(Comparator.reverseOrder())).containsExactly(7, 6);
+    }
+
+    @Test
+    void shouldSelectNothingWithoutLimit() {
+        var selection = new BoundedSelection<Integer>(0, Comparator.naturalOrder());
+
+        assertThat(selection.offer(1)).isFalse();
+        assertThat(selection.getOffered()).isOne();
+        assertThat(selection.drain(Comparator.naturalOrder())).isEmpty();
+    }
+}
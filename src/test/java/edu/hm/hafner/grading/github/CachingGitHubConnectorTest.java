@@ -0,0 +1,171 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CachingGitHubConnectorTest {
+    private static final String URL = "https://api.github.com/repos/owner/repo/pulls/1/comments";
+    private static final String BODY = "[{\"id\":1}]";
+
+    @TempDir
+    private Path cacheFolder;
+
+    @Test
+    void shouldServeUnmodifiedResponsesFromCache() throws IOException {
+        var server = new FakeConnector();
+        var connector = HttpResponseCache.create(cacheFolder.toString()).decorate(server);
+
+        server.respond(200, BODY, Map.of("ETag", List.of("\"v1\""), "X-RateLimit-Remaining", List.of("10")));
+        try (var first = connector.send(new Request("GET", URL))) {
+            assertThat(first.statusCode()).isEqualTo(200);
+            assertThat(read(first)).isEqualTo(BODY);
+        }
+        assertThat(server.requests.getFirst().header("If-None-Match")).isNull();
+
+        server.respond(304, "", Map.of("ETag", List.of("\"v1\""), "X-RateLimit-Remaining", List.of("9")));
+        try (var second = connector.send(new Request("GET", URL))) {
+            assertThat(second.statusCode()).isEqualTo(200);
+            assertThat(read(second)).isEqualTo(BODY);
+            assertThat(second.header("X-RateLimit-Remaining")).isEqualTo("9");
+        }
+        assertThat(server.requests.getLast().header("If-None-Match")).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void shouldReplaceModifiedResponses() throws IOException {
+        var server = new FakeConnector();
+        var connector = HttpResponseCache.create(cacheFolder.toString()).decorate(server);
+
+        server.respond(200, BODY, Map.of("ETag", List.of("\"v1\"")));
+        connector.send(new Request("GET", URL)).close();
+
+        server.respond(200, "[]", Map.of("ETag", List.of("\"v2\"")));
+        try (var modified = connector.send(new Request("GET", URL))) {
+            assertThat(read(modified)).isEqualTo("[]");
+        }
+
+        server.respond(304, "", Map.of());
+        try (var cached = connector.send(new Request("GET", URL))) {
+            assertThat(read(cached)).isEqualTo("[]");
+        }
+        assertThat(server.requests.getLast().header("If-None-Match")).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void shouldNotCacheOtherRequests() throws IOException {
+        var server = new FakeConnector();
+        var connector = HttpResponseCache.create(cacheFolder.toString()).decorate(server);
+
+        server.respond(200, BODY, Map.of("ETag", List.of("\"v1\"")));
+        connector.send(new Request("POST", URL)).close();
+        connector.send(new Request("POST", URL)).close();
+
+        assertThat(server.requests).allSatisfy(request -> assertThat(request.header("If-None-Match")).isNull());
+        assertThat(cacheFolder).isEmptyDirectory();
+    }
+
+    @Test
+    void shouldNotDecorateIfCacheIsDisabled() {
+        var server = new FakeConnector();
+
+        assertThat(HttpResponseCache.create("").decorate(server)).isSameAs(server);
+    }
+
+    private String read(final GitHubConnectorResponse response) throws IOException {
+        return new String(response.bodyStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static class FakeConnector implements GitHubConnector {
+        private final List<GitHubConnectorRequest> requests = new ArrayList<>();
+        private int status;
+        private String body = "";
+        private Map<String, List<String>> headers = Map.of();
+
+        void respond(final int statusCode, final String responseBody, final Map<String, List<String>> responseHeaders) {
+            status = statusCode;
+            body = responseBody;
+            headers = responseHeaders;
+        }
+
+        @Override
+        public GitHubConnectorResponse send(final GitHubConnectorRequest request) {
+            requests.add(request);
+            return new Response(request, status, headers, body);
+        }
+    }
+
+    private static class Response extends GitHubConnectorResponse {
+        private final String body;
+
+        Response(final GitHubConnectorRequest request, final int statusCode,
+                final Map<String, List<String>> headers, final String body) {
+            super(request, statusCode, headers);
+
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private record Request(String method, String path) implements GitHubConnectorRequest {
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return Map.of("Accept", List.of("application/vnd.github+json"));
+        }
+
+        @Override
+        public String header(final String name) {
+            return "Accept".equalsIgnoreCase(name) ? "application/vnd.github+json" : null;
+        }
+
+        @Override
+        public String contentType() {
+            return "application/json";
+        }
+
+        @Override
+        public InputStream body() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public URL url() {
+            try {
+                return URI.create(path).toURL();
+            }
+            catch (IOException exception) {
+                throw new IllegalArgumentException(exception);
+            }
+        }
+
+        @Override
+        public boolean hasBody() {
+            return false;
+        }
+
+        @Override
+        public boolean avoidCaching() {
+            return false;
+        }
+    }
+}
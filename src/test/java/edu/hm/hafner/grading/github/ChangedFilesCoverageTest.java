@@ -0,0 +1,68 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Mutation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChangedFilesCoverageTest {
+    private static final String PATH = "src/main/java/Foo.java";
+
+    @Test
+    void shouldVisitMissedLineRangesAndPartiallyCoveredLines() {
+        var file = new FileNode("Foo.java", PATH);
+        file.addCounters(1, 1, 0);
+        file.addCounters(2, 0, 1);
+        file.addCounters(3, 0, 1);
+        file.addCounters(4, 1, 0);
+        file.addCounters(5, 0, 1);
+        file.addCounters(6, 1, 2);
+
+        var visited = new ArrayList<String>();
+        new ChangedFilesCoverage(Map.of(PATH, List.of(file)), Map.of()).accept(new ChangedFilesCoverage.Visitor() {
+            @Override
+            public void visitMissedLines(final String path, final int start, final int end) {
+                visited.add("missed %s:%d-%d".formatted(path, start, end));
+            }
+
+            @Override
+            public void visitPartiallyCoveredLine(final String path, final int line, final int missedBranches) {
+                visited.add("partial %s:%d (%d)".formatted(path, line, missedBranches));
+            }
+
+            @Override
+            public void visitSurvivedMutations(final String path, final int line, final List<Mutation> mutations) {
+                visited.add("mutation %s:%d".formatted(path, line));
+            }
+        });
+
+        assertThat(visited).containsExactly(
+                "missed " + PATH + ":2-3",
+                "missed " + PATH + ":5-5",
+                "partial " + PATH + ":6 (2)");
+    }
+
+    @Test
+    void shouldIgnoreEmptyResults() {
+        var coverage = new ChangedFilesCoverage(Map.of(), Map.of());
+
+        assertThat(coverage.getChangedFiles()).isZero();
+    }
+
+    @Test
+    void shouldCountFilesWithCodeAndMutationCoverageOnce() {
+        var file = new FileNode("Foo.java", PATH);
+        var other = "src/main/java/Bar.java";
+
+        var coverage = new ChangedFilesCoverage(Map.of(PATH, List.of(file)),
+                Map.of(PATH, List.of(file), other, List.of(new FileNode("Bar.java", other))));
+
+        assertThat(coverage.getChangedFiles()).isEqualTo(2);
+    }
+}
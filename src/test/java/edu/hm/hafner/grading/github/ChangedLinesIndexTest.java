@@ -0,0 +1,38 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChangedLinesIndexTest {
+    private static final String FILE = "src/main/java/Foo.java";
+
+    @Test
+    void shouldCreateEmptyIndex() {
+        var index = ChangedLinesIndex.of(Map.of());
+
+        assertThat(index).isSameAs(ChangedLinesIndex.empty());
+        assertThat(index.contains(FILE)).isFalse();
+        assertThat(index.overlaps(FILE, 1, 1)).isFalse();
+        assertThat(index.asMap()).isEmpty();
+    }
+
+    @Test
+    void shouldAnswerRangeQueries() {
+        var index = ChangedLinesIndex.of(Map.of(FILE, Set.of(5, 6, 7, 20)));
+
+        assertThat(index.size()).isOne();
+        assertThat(index.getFiles()).containsExactly(FILE);
+        assertThat(index.contains(FILE)).isTrue();
+        assertThat(index.contains("other.java")).isFalse();
+        assertThat(index.overlaps(FILE, 1, 4)).isFalse();
+        assertThat(index.overlaps(FILE, 1, 5)).isTrue();
+        assertThat(index.overlaps(FILE, 8, 19)).isFalse();
+        assertThat(index.overlaps(FILE, 8, 100)).isTrue();
+        assertThat(index.overlaps("other.java", 1, 100)).isFalse();
+        assertThat(index.asMap()).containsEntry(FILE, Set.of(5, 6, 7, 20));
+    }
+}
@@ -0,0 +1,116 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DebugLogTest {
+    @Test
+    void shouldPrintMessagesOfEachPhaseInOrder() {
+        var output = new ByteArrayOutputStream();
+        var debugLog = new DebugLog(new PrintStream(output, true, StandardCharsets.UTF_8), 100);
+
+        try (var diff = debugLog.channel("diff"); var annotations = debugLog.channel("annotations")) {
+            diff.log("File %s has %d changed lines", "a.txt", 2);
+            annotations.log("Creating annotation for %s", "b.txt");
+            diff.log("File %s has %d changed lines", "c.txt", 3);
+        }
+        debugLog.close();
+
+        assertThat(output.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "[diff] File a.txt has 2 changed lines",
+                "[annotations] Creating annotation for b.txt",
+                "[diff] File c.txt has 3 changed lines");
+    }
+
+    @Test
+    void shouldSummarizeDroppedMessages() throws InterruptedException {
+        var output = new BlockingOutputStream();
+        var debugLog = new DebugLog(new PrintStream(output, true, StandardCharsets.UTF_8), 1);
+
+        var channel = debugLog.channel("annotations");
+        channel.log("first");
+        output.writing.await();  // the background thread is blocked while printing the first message
+        channel.log("second");
+        channel.log("third");
+        channel.log("fourth");
+
+        assertThat(channel.getDropped()).isEqualTo(2);
+
+        output.release.countDown();
+        channel.close();
+        debugLog.close();
+
+        assertThat(output.toString().lines()).containsExactly(
+                "[annotations] first",
+                "[annotations] second",
+                "[annotations] 2 debug messages have been dropped, the buffer of 1 messages was full");
+    }
+
+    @Test
+    void shouldIgnoreMessagesIfDisabled() {
+        var debugLog = DebugLog.disabled();
+
+        try (var channel = debugLog.channel("diff")) {
+            assertThat(channel.isEnabled()).isFalse();
+
+            channel.log("ignored");
+
+            assertThat(channel.getDropped()).isZero();
+        }
+        assertThat(debugLog.isEnabled()).isFalse();
+    }
+
+    @Test
+    void shouldDropMessagesAfterClose() {
+        var output = new ByteArrayOutputStream();
+        var debugLog = new DebugLog(new PrintStream(output, true, StandardCharsets.UTF_8), 10);
+        var channel = debugLog.channel("diff");
+
+        debugLog.close();
+        channel.log("too late");
+
+        assertThat(channel.isEnabled()).isFalse();
+        assertThat(channel.getDropped()).isOne();
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEmpty();
+    }
+
+    /**
+     * Blocks the first write until the test releases the stream.
+     */
+    private static final class BlockingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(final int b) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+
+                throw new IOException(exception);
+            }
+            synchronized (content) {
+                content.write(b);
+            }
+        }
+
+        @Override
+        public String toString() {
+            synchronized (content) {
+                return content.toString(StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.grading.github.FlightRecording.Summary;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FlightRecordingTest {
+    @Test
+    void shouldBeDisabledByDefault() {
+        var recording = FlightRecording.fromEnvironment();
+
+        assertThat(recording.isEnabled()).isFalse();
+        assertThat(recording.stop(new FilteredLog("Errors"))).isEmpty();
+    }
+
+    @Test
+    void shouldWriteRecording(@TempDir final Path folder) {
+        var file = folder.resolve(FlightRecording.FILE);
+        var recording = FlightRecording.start(file);
+
+        assertThat(recording.isEnabled()).isTrue();
+
+        var values = new ArrayList<String>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add("value-" + i);
+        }
+        assertThat(values).hasSize(100_000);
+
+        var log = new FilteredLog("Errors");
+        var summary = recording.stop(log);
+
+        assertThat(file).exists().isNotEmptyFile();
+        assertThat(log.getErrorMessages()).isEmpty();
+        assertThat(summary).isPresent().get().satisfies(
+                profile -> assertThat(profile.toMarkdown())
+                        .contains("<summary>Profile</summary>",
+                                "| GC pauses | Total pause time | Longest pause | Peak heap | Allocated |",
+                                "The complete recording has been written to `quality-monitor.jfr`."));
+        assertThat(recording.stop(log)).isEqualTo(summary);
+    }
+
+    @Test
+    void shouldSummarizeHotSpots() {
+        var summary = new Summary("profile.jfr");
+
+        summary.addExecutionSample("edu.hm.hafner.Parser.parse");
+        summary.addExecutionSample("edu.hm.hafner.Parser.parse");
+        summary.addExecutionSample("java.lang.String.indexOf");
+        summary.addExecutionSample("edu.hm.hafner.Parser.parse");
+        summary.addAllocation("java.util.ArrayList.grow", 3 * 1024 * 1024);
+        summary.addAllocation("java.lang.StringConcatHelper.newString", 1024 * 1024);
+        summary.addGarbageCollection(Duration.ofMillis(12), Duration.ofMillis(8));
+        summary.addGarbageCollection(Duration.ofMillis(5), Duration.ofMillis(5));
+        summary.addHeapUsage(20 * 1024 * 1024);
+        summary.addHeapUsage(64 * 1024 * 1024);
+        summary.addHeapUsage(32 * 1024 * 1024);
+
+        assertThat(summary.toMarkdown()).contains(
+                "| 2 | 17 ms | 8 ms | 64 MB | 4 MB |",
+                """
+                | CPU hot spot | Samples | Share |
+                |:---|---:|---:|
+                | `edu.hm.hafner.Parser.parse` | 3 | 75.0% |
+                | `java.lang.String.indexOf` | 1 | 25.0% |
+                """,
+                """
+                | Allocation hot spot | Allocated | Share |
+                |:---|---:|---:|
+                | `java.util.ArrayList.grow` | 3 MB | 75.0% |
+                | `java.lang.StringConcatHelper.newString` | 1 MB | 25.0% |
+                """,
+                "The complete recording has been written to `profile.jfr`.");
+    }
+}
@@ -0,0 +1,83 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitDiffProviderTest {
+    @TempDir
+    private Path workspace;
+
+    @Test
+    void shouldLoadChangedLinesSinceMergeBase() throws IOException, InterruptedException {
+        git("init", "--quiet", "--initial-branch=main");
+        write("Foo.java", "a", "b", "c", "d");
+        write("Removed.java", "x");
+        commit("initial");
+
+        git("checkout", "--quiet", "-b", "feature");
+        write("Foo.java", "a", "added", "b", "c", "changed");
+        write("New.java", "1", "2");
+        Files.delete(workspace.resolve("Removed.java"));
+        commit("feature");
+
+        git("checkout", "--quiet", "main");
+        write("Other.java", "only on main");
+        commit("main");
+
+        var log = new FilteredLog("Errors");
+        var changedLines = new GitDiffProvider(workspace).loadChangedLines("main", "feature", log);
+
+        assertThat(changedLines).containsOnly(
+                entry("Foo.java", Set.of(2, 5)),
+                entry("New.java", Set.of(1, 2)));
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldLogErrorIfRevisionIsMissing() throws IOException, InterruptedException {
+        git("init", "--quiet", "--initial-branch=main");
+        write("Foo.java", "a");
+        commit("initial");
+
+        var log = new FilteredLog("Errors");
+        var changedLines = new GitDiffProvider(workspace).loadChangedLines("origin/main", "HEAD", log);
+
+        assertThat(changedLines).isEmpty();
+        assertThat(log.getErrorMessages()).anySatisfy(
+                message -> assertThat(message).contains("Can't find a merge base of 'origin/main' and 'HEAD'"));
+        assertThat(log.getErrorMessages()).anySatisfy(
+                message -> assertThat(message).startsWith("Git failed with exit code").contains("origin/main"));
+    }
+
+    private void write(final String fileName, final String... lines) throws IOException {
+        Files.write(workspace.resolve(fileName), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    private void commit(final String message) throws IOException, InterruptedException {
+        git("add", "--all");
+        git("-c", "user.name=Test", "-c", "user.email=test@example.com", "commit", "--quiet", "-m", message);
+    }
+
+    private void git(final String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(arguments));
+        var process = new ProcessBuilder(command).directory(workspace.toFile()).inheritIO().start();
+
+        assertThat(process.waitFor(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as("Exit code of %s", command).isZero();
+    }
+}
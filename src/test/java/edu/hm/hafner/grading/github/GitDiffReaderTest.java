@@ -0,0 +1,106 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitDiffReaderTest {
+    private static final String DIFF = """
+            diff --git a/src/main/java/Foo.java b/src/main/java/Foo.java
+            index 1234567..89abcde 100644
+            --- a/src/main/java/Foo.java
+            +++ b/src/main/java/Foo.java
+            @@ -1,3 +1,4 @@
+             package foo;
+            +import java.util.List;
+            \s
+             class Foo {
+            @@ -10,2 +11,3 @@ class Foo {
+            -    int a;
+            +    int b;
+            +    int c;
+             }
+            diff --git a/src/main/java/Removed.java b/src/main/java/Removed.java
+            deleted file mode 100644
+            index 1234567..0000000
+            --- a/src/main/java/Removed.java
+            +++ /dev/null
+            @@ -1,2 +0,0 @@
+            -class Removed {
+            -}
+            diff --git a/old/Renamed.java b/new/Renamed.java
+            similarity index 100%
+            rename from old/Renamed.java
+            rename to new/Renamed.java
+            diff --git a/image.png b/image.png
+            new file mode 100644
+            index 0000000..1234567
+            Binary files /dev/null and b/image.png differ
+            diff --git a/src/New.java b/src/New.java
+            new file mode 100644
+            index 0000000..1234567
+            --- /dev/null
+            +++ b/src/New.java
+            @@ -0,0 +1,2 @@
+            +--- not a header
+            +diff --git is not a header here
+            """;
+
+    @Test
+    void shouldReadAddedLinesOfAllFiles() throws IOException {
+        assertThat(read(DIFF)).containsOnly(
+                entry("src/main/java/Foo.java", Set.of(2, 11, 12)),
+                entry("src/New.java", Set.of(1, 2)));
+    }
+
+    @Test
+    void shouldHandleCrlfAndMissingNewLineAtEnd() throws IOException {
+        var diff = DIFF.replace("\n", "\r\n").strip();
+
+        assertThat(read(diff)).containsOnly(
+                entry("src/main/java/Foo.java", Set.of(2, 11, 12)),
+                entry("src/New.java", Set.of(1, 2)));
+    }
+
+    @Test
+    void shouldReadLinesThatAreLongerThanTheBuffer() throws IOException {
+        var diff = """
+                diff --git a/Long.java b/Long.java
+                --- a/Long.java
+                +++ b/Long.java
+                @@ -1,1 +1,2 @@
+                 %s
+                +%s
+                """.formatted("a".repeat(100_000), "b".repeat(50_000));
+
+        assertThat(read(diff)).containsOnly(entry("Long.java", Set.of(2)));
+    }
+
+    @Test
+    void shouldUnquoteFileNames() throws IOException {
+        var diff = """
+                diff --git "a/with space\\303\\244.txt" "b/with space\\303\\244.txt"
+                --- "a/with space\\303\\244.txt"
+                +++ "b/with space\\303\\244.txt"
+                @@ -1 +1 @@
+                -a
+                +b
+                """;
+
+        assertThat(read(diff)).containsOnly(entry("with spaceä.txt", Set.of(1)));
+    }
+
+    @Test
+    void shouldReturnEmptyMapForEmptyDiff() throws IOException {
+        assertThat(read("")).isEmpty();
+    }
+
+    private Map<String, Set<Integer>> read(final String diff) throws IOException {
+        return new GitDiffReader().read(new StringReader(diff));
+    }
+}
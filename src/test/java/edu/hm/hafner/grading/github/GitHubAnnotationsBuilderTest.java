@@ -0,0 +1,100 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetEnvironmentVariable;
+
+import edu.hm.hafner.grading.CommentBuilder.CommentType;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.kohsuke.github.GHCheckRunBuilder.Annotation;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitHubAnnotationsBuilderTest {
+    private static final String CHANGED = "src/main/java/Changed.java";
+    private static final String UNCHANGED = "src/main/java/Unchanged.java";
+
+    @Test
+    void shouldCreateAllAnnotationsInReportOrderWithoutLimit() {
+        var annotations = new ArrayList<Annotation>();
+        var builder = createBuilder(annotations);
+
+        createWarning(builder, UNCHANGED, 3);
+        createWarning(builder, CHANGED, 30);
+        createWarning(builder, CHANGED, 10);
+
+        assertThat(annotations).extracting("path", "start_line").containsExactly(
+                tuple(UNCHANGED, 3), tuple(CHANGED, 30), tuple(CHANGED, 10));
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "MAX_WARNING_ANNOTATIONS", value = "2")
+    void shouldSelectWarningsInChangedLines() {
+        var annotations = new ArrayList<Annotation>();
+        var builder = createBuilder(annotations);
+
+        createWarning(builder, UNCHANGED, 1);
+        createWarning(builder, UNCHANGED, 2);
+        createWarning(builder, CHANGED, 30);
+        createWarning(builder, CHANGED, 1);
+        createWarning(builder, CHANGED, 10);
+
+        assertThat(annotations).isEmpty();
+
+        builder.createSelectedAnnotations();
+
+        assertThat(annotations).extracting("path", "start_line").containsExactly(
+                tuple(CHANGED, 1), tuple(CHANGED, 30));
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "MAX_WARNING_ANNOTATIONS", value = "2")
+    void shouldPreferPreciseLocationsAndReportOrder() {
+        var annotations = new ArrayList<Annotation>();
+        var builder = createBuilder(annotations);
+
+        createWarning(builder, UNCHANGED, 0);
+        createWarning(builder, UNCHANGED, 5);
+        createWarning(builder, UNCHANGED, 8);
+        createWarning(builder, UNCHANGED, 7);
+
+        builder.createSelectedAnnotations();
+
+        assertThat(annotations).extracting("path", "start_line").containsExactly(
+                tuple(UNCHANGED, 5), tuple(UNCHANGED, 8));
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "MAX_COVERAGE_ANNOTATIONS", value = "1")
+    void shouldLimitCoverageAnnotationsIndependently() {
+        var annotations = new ArrayList<Annotation>();
+        var builder = createBuilder(annotations);
+
+        createWarning(builder, UNCHANGED, 1);
+        builder.createComment(CommentType.NO_COVERAGE, CHANGED, 10, 12, "Not covered", "Missing coverage",
+                0, 0, "", "");
+        builder.createComment(CommentType.PARTIAL_COVERAGE, CHANGED, 11, 11, "Partially covered",
+                "Partial coverage", 0, 0, "", "");
+        builder.createComment(CommentType.NO_COVERAGE, UNCHANGED, 1, 1, "Not covered", "Missing coverage",
+                0, 0, "", "");
+
+        builder.createSelectedAnnotations();
+
+        assertThat(annotations).extracting("path", "start_line").containsExactly(
+                tuple(UNCHANGED, 1), tuple(CHANGED, 11));
+    }
+
+    private GitHubAnnotationsBuilder createBuilder(final List<Annotation> annotations) {
+        return new GitHubAnnotationsBuilder(Map.of(CHANGED, Set.of(1, 10, 11, 30)), annotations::add, "",
+                new FilteredLog());
+    }
+
+    private void createWarning(final GitHubAnnotationsBuilder builder, final String path, final int line) {
+        builder.createComment(CommentType.WARNING, path, line, line, "Warning", "CheckStyle", 0, 0, "", "");
+    }
+}
@@ -0,0 +1,45 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetEnvironmentVariable;
+
+import java.io.IOException;
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitHubConnectionTest {
+    @Test
+    @SetEnvironmentVariable(key = "GITHUB_API_URL", value = "https://ghe.local/api/v3")
+    @SetEnvironmentVariable(key = "CONNECT_TIMEOUT", value = "5")
+    @SetEnvironmentVariable(key = "REQUEST_TIMEOUT", value = "30")
+    void shouldCreateConnectionFromEnvironment() {
+        var connection = GitHubConnection.fromEnvironment();
+
+        assertThat(connection.getApiUrl()).isEqualTo("https://ghe.local/api/v3");
+        assertThat(connection.getRequestTimeout()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(connection.getHttpClient().version()).isEqualTo(Version.HTTP_2);
+        assertThat(connection.getHttpClient().connectTimeout()).contains(Duration.ofSeconds(5));
+        assertThat(connection.getResponseCache().isEnabled()).isFalse();
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONNECT_TIMEOUT", value = "-1")
+    @SetEnvironmentVariable(key = "REQUEST_TIMEOUT", value = "two minutes")
+    void shouldUseDefaultTimeoutsForInvalidValues() {
+        var connection = GitHubConnection.fromEnvironment();
+
+        assertThat(connection.getRequestTimeout()).isEqualTo(Duration.ofSeconds(120));
+        assertThat(connection.getHttpClient().connectTimeout()).contains(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "HTTP_CACHE", value = "target/http-cache")
+    void shouldShareClients() throws IOException {
+        var connection = GitHubConnection.fromEnvironment();
+
+        assertThat(connection.getResponseCache().isEnabled()).isTrue();
+        assertThat(connection.getGitHub()).isSameAs(connection.getGitHub());
+    }
+}
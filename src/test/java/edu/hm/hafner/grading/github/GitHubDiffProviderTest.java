@@ -75,7 +75,6 @@ class GitHubDiffProviderTest {
     }
 
     private Set<Integer> parse(final String diff) {
-        var provider = new GitHubDiffProvider();
-        return provider.parseUnifiedDiffForNewFileAddedLines(diff);
+        return GitHubDiffProvider.parseUnifiedDiffForNewFileAddedLines(diff);
     }
 }
@@ -0,0 +1,126 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.grading.github.GitHubRequestScheduler.Priority;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.github.HttpException;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GitHubRequestSchedulerTest {
+    private static final GitHubConnectorRequest REQUEST = (GitHubConnectorRequest) Proxy.newProxyInstance(
+            GitHubConnectorRequest.class.getClassLoader(), new Class<?>[] {GitHubConnectorRequest.class},
+            (proxy, method, arguments) -> null);
+
+    private final List<Duration> sleeps = new ArrayList<>();
+    private final GitHubRequestScheduler scheduler = new GitHubRequestScheduler(sleeps::add);
+
+    @Test
+    void shouldRetrySecondaryRateLimitWithBackoff() throws IOException {
+        var attempts = new AtomicInteger();
+
+        var result = scheduler.execute(Priority.COMMENT, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new HttpException("You have exceeded a secondary rate limit", 403, "Forbidden", "url");
+            }
+            return "created";
+        });
+
+        assertThat(result).contains("created");
+        assertThat(attempts).hasValue(3);
+        assertThat(sleeps).hasSize(2).allSatisfy(
+                duration -> assertThat(duration).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void shouldWaitForRetryAfterHeader() throws IOException {
+        var attempts = new AtomicInteger();
+
+        var result = scheduler.execute(Priority.CHECK_RUN, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                respond(Map.of("Retry-After", List.of("7")));
+                throw new HttpException("Forbidden", 403, "Forbidden", "url");
+            }
+            return "created";
+        });
+
+        assertThat(result).contains("created");
+        assertThat(sleeps).containsExactly(Duration.ofSeconds(7));
+    }
+
+    @Test
+    void shouldMarkOnlyRequestsOfScheduler() throws IOException {
+        assertThat(scheduler.isScheduled()).isFalse();
+
+        var result = scheduler.execute(Priority.COMMENT, scheduler::isScheduled);
+
+        assertThat(result).contains(true);
+        assertThat(scheduler.isScheduled()).isFalse();
+    }
+
+    @Test
+    void shouldNotRetryOtherErrors() {
+        var attempts = new AtomicInteger();
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(() -> scheduler.execute(Priority.CHECK_RUN, () -> {
+            attempts.incrementAndGet();
+            throw new HttpException("Resource not accessible by integration", 403, "Forbidden", "url");
+        }));
+        assertThat(attempts).hasValue(1);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    void shouldGiveUpAfterMaximumNumberOfAttempts() {
+        var attempts = new AtomicInteger();
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(() -> scheduler.execute(Priority.ANNOTATIONS, () -> {
+            attempts.incrementAndGet();
+            throw new HttpException("Too many requests", 429, "Too Many Requests", "url");
+        }));
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void shouldDropLowPriorityRequestsIfQuotaIsLow() throws IOException {
+        respond(Map.of("X-RateLimit-Remaining", List.of("50")));
+
+        assertThat(scheduler.execute(Priority.ANNOTATIONS, () -> "annotations")).isEmpty();
+        assertThat(scheduler.execute(Priority.COMMENT, () -> "comment")).contains("comment");
+        assertThat(scheduler.execute(Priority.CHECK_RUN, () -> "check")).contains("check");
+
+        respond(Map.of("X-RateLimit-Remaining", List.of("0")));
+
+        assertThat(scheduler.execute(Priority.COMMENT, () -> "comment")).isEmpty();
+        assertThat(scheduler.execute(Priority.CHECK_RUN, () -> "check")).contains("check");
+        assertThat(scheduler.getDroppedRequests()).isEqualTo(2);
+    }
+
+    private void respond(final Map<String, List<String>> headers) throws IOException {
+        scheduler.observe(request -> new Response(request, headers)).send(REQUEST).close();
+    }
+
+    private static class Response extends GitHubConnectorResponse {
+        Response(final GitHubConnectorRequest request, final Map<String, List<String>> headers) {
+            super(request, 200, headers);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+    }
+}
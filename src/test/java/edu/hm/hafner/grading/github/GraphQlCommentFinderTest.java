@@ -0,0 +1,134 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.kohsuke.github.HttpException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GraphQlCommentFinderTest {
+    private static final String MARKER = "<!-- marker -->";
+    private static final String LATEST_PAGE = """
+            {"data": {"repository": {"pullRequest": {"comments": {
+              "pageInfo": {"hasPreviousPage": true, "startCursor": "cursor-1"},
+              "nodes": [{"id": "C3", "body": "other"}, {"id": "C4", "body": "text"}]
+            }}}}}
+            """;
+    private static final String FIRST_PAGE = """
+            {"data": {"repository": {"pullRequest": {"comments": {
+              "pageInfo": {"hasPreviousPage": false, "startCursor": "cursor-0"},
+              "nodes": [{"id": "C1", "body": "<!-- marker -->old"}, {"id": "C2", "body": "<!-- marker -->new"}]
+            }}}}}
+            """;
+
+    private final Deque<String> responses = new ArrayDeque<>();
+    private final List<String> requests = new ArrayList<>();
+    private int status = 200;
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            var body = responses.removeFirst().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (var output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldFindNewestCommentWithMarker() throws IOException {
+        responses.add(LATEST_PAGE);
+        responses.add(FIRST_PAGE);
+        responses.add("{\"data\": {\"updateIssueComment\": {\"issueComment\": {\"id\": \"C2\"}}}}");
+
+        var comment = createFinder().find("owner/repo", 42, MARKER);
+
+        assertThat(comment).isPresent();
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0)).contains("\"owner\":\"owner\"", "\"name\":\"repo\"", "\"number\":42")
+                .doesNotContain("cursor-1");
+        assertThat(requests.get(1)).contains("\"cursor\":\"cursor-1\"");
+
+        comment.get().update("new body");
+
+        assertThat(requests.get(2)).contains("updateIssueComment", "\"id\":\"C2\"", "\"body\":\"new body\"");
+    }
+
+    @Test
+    void shouldReturnEmptyIfNoCommentContainsMarker() throws IOException {
+        responses.add(LATEST_PAGE.replace("true", "false"));
+
+        assertThat(createFinder().find("owner/repo", 42, MARKER)).isEmpty();
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void shouldThrowExceptionOnErrors() {
+        responses.add("{\"errors\": [{\"message\": \"Resource not accessible by integration\"}]}");
+
+        assertThatIOException().isThrownBy(() -> createFinder().find("owner/repo", 42, MARKER))
+                .withMessageContaining("Resource not accessible by integration");
+    }
+
+    @Test
+    void shouldReportRateLimitsWithHttpStatus() {
+        status = 403;
+        responses.add("{\"message\": \"You have exceeded a secondary rate limit\"}");
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(() -> createFinder().find("owner/repo", 42, MARKER))
+                .withMessageContaining("HTTP status 403")
+                .withMessageContaining("secondary rate limit")
+                .satisfies(exception -> assertThat(exception.getResponseCode()).isEqualTo(403));
+    }
+
+    @Test
+    void shouldReportRateLimitErrorsAsHttpException() {
+        responses.add("{\"errors\": [{\"type\": \"RATE_LIMITED\", \"message\": \"API rate limit exceeded\"}]}");
+
+        assertThatExceptionOfType(HttpException.class).isThrownBy(() -> createFinder().find("owner/repo", 42, MARKER))
+                .withMessageContaining("API rate limit exceeded");
+    }
+
+    @Test
+    void shouldResolveEndpoint() {
+        assertThat(GitHubGraphQlClient.resolveEndpoint("https://ghe.local/api/graphql", "ignored"))
+                .isEqualTo("https://ghe.local/api/graphql");
+        assertThat(GitHubGraphQlClient.resolveEndpoint("", ""))
+                .isEqualTo("https://api.github.com/graphql");
+        assertThat(GitHubGraphQlClient.resolveEndpoint("", "https://api.github.com/"))
+                .isEqualTo("https://api.github.com/graphql");
+        assertThat(GitHubGraphQlClient.resolveEndpoint("", "https://ghe.local/api/v3"))
+                .isEqualTo("https://ghe.local/api/graphql");
+    }
+
+    private GraphQlCommentFinder createFinder() {
+        var endpoint = "http://localhost:%d/graphql".formatted(server.getAddress().getPort());
+
+        return new GraphQlCommentFinder(new GitHubGraphQlClient(HttpClient.newHttpClient(), endpoint, "token",
+                Duration.ofSeconds(10)));
+    }
+}
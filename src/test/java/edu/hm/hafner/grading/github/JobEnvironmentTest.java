@@ -0,0 +1,105 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JobEnvironmentTest {
+    private static final Path ROOT = Path.of("/runner/_work");
+    private static final Path WORKSPACE = ROOT.resolve("repo/repo");
+
+    @Test
+    void shouldUseProcessEnvironmentWithoutJob() {
+        assertThat(JobEnvironment.isActive()).isFalse();
+        assertThat(JobEnvironment.getEnv("QUALITY_MONITOR_UNDEFINED_VARIABLE")).isEmpty();
+        assertThat(JobEnvironment.resolve("metrics.env")).isEqualTo(Path.of("metrics.env"));
+        assertThat(JobEnvironment.getRelativeWorkspace()).isEmpty();
+        assertThat(JobEnvironment.relocatePatterns("{\"pattern\": \"target/jacoco.xml\"}"))
+                .isEqualTo("{\"pattern\": \"target/jacoco.xml\"}");
+    }
+
+    @Test
+    void shouldUseEnvironmentOfJob() {
+        var job = new JobEnvironment(ROOT, WORKSPACE, Map.of("CONFIG", "{}", "GITHUB_SHA", "abc"));
+
+        job.run(() -> {
+            assertThat(JobEnvironment.isActive()).isTrue();
+            assertThat(JobEnvironment.getEnv("GITHUB_SHA")).isEqualTo("abc");
+            assertThat(JobEnvironment.getEnv("CONFIG")).isEqualTo("{}");
+            assertThat(JobEnvironment.getEnv("PATH")).as("Process variables are not visible in jobs").isEmpty();
+            assertThat(JobEnvironment.resolve("metrics.env"))
+                    .isEqualTo(WORKSPACE.toAbsolutePath().resolve("metrics.env"));
+            assertThat(JobEnvironment.getRelativeWorkspace()).isEqualTo("repo/repo");
+        });
+
+        assertThat(JobEnvironment.isActive()).isFalse();
+    }
+
+    @Test
+    void shouldDetectProfiledJobs() {
+        assertThat(new JobEnvironment(ROOT, WORKSPACE, Map.of("PROFILE", "true")).isProfiled()).isTrue();
+        assertThat(new JobEnvironment(ROOT, WORKSPACE, Map.of("PROFILE", " ")).isProfiled()).isFalse();
+        assertThat(new JobEnvironment(ROOT, WORKSPACE, Map.of()).isProfiled()).isFalse();
+    }
+
+    @Test
+    void shouldInheritEnvironmentInChildThreads() throws InterruptedException {
+        var job = new JobEnvironment(ROOT, WORKSPACE, Map.of("GITHUB_SHA", "abc"));
+        var value = new AtomicReference<String>();
+
+        job.run(() -> {
+            var thread = Thread.ofVirtual().start(() -> value.set(JobEnvironment.getEnv("GITHUB_SHA")));
+            try {
+                thread.join();
+            }
+            catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(value).hasValue("abc");
+    }
+
+    @Test
+    void shouldRejectWorkspaceOutsideOfRoot() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new JobEnvironment(ROOT, Path.of("/tmp/repo"), Map.of()))
+                .withMessageContaining("is not a folder below");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new JobEnvironment(ROOT, ROOT.resolve("../other"), Map.of()));
+    }
+
+    @Test
+    void shouldRelocatePatternsToWorkspace() {
+        var job = new JobEnvironment(ROOT, WORKSPACE, Map.of());
+        var relocated = new AtomicReference<String>();
+
+        job.run(() -> relocated.set(JobEnvironment.relocatePatterns("""
+                {
+                  "tests": {"tools": [{"id": "junit", "pattern": "**/target/*-reports/TEST*.xml"}]},
+                  "coverage": [{"tools": [{"id": "jacoco", "pattern": "target/jacoco.xml, build/jacoco.xml"}]}],
+                  "name": "unchanged"
+                }
+                """)));
+
+        assertThat(relocated.get())
+                .contains("\"pattern\":\"repo/repo/**/target/*-reports/TEST*.xml,"
+                        + "repo/repo/target/*-reports/TEST*.xml\"")
+                .contains("\"pattern\":\"repo/repo/target/jacoco.xml,repo/repo/build/jacoco.xml\"")
+                .contains("\"name\":\"unchanged\"");
+    }
+
+    @Test
+    void shouldKeepInvalidConfiguration() {
+        var job = new JobEnvironment(ROOT, WORKSPACE, Map.of());
+        var relocated = new AtomicReference<String>();
+
+        job.run(() -> relocated.set(JobEnvironment.relocatePatterns("{")));
+
+        assertThat(relocated).hasValue("{");
+    }
+}
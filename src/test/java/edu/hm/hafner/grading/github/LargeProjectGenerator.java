@@ -0,0 +1,339 @@
+package edu.hm.hafner.grading.github;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Generates the reports of a synthetic multi-module project of arbitrary size. For each module the generator writes
+ * the reports of JUnit, Checkstyle, PMD, SpotBugs, JaCoCo, PIT, and the PMD metrics in the same layout as a Maven
+ * build. Additionally, a unified diff of a pull request is created that modifies some lines of every tenth class. The
+ * contents are deterministic, so subsequent runs with the same size create the same reports.
+ */
+final class LargeProjectGenerator {
+    private static final int LINES_PER_METHOD = 10;
+    private static final int METHODS_PER_CLASS = 8;
+    private static final int FIRST_LINE = 10;
+    private static final int CHANGED_CLASS_INTERVAL = 10;
+    private static final int CHANGED_LINES = 12;
+
+    private final int modules;
+    private final int classesPerModule;
+    private final int warningsPerClass;
+
+    /**
+     * Creates a new generator.
+     *
+     * @param modules
+     *         the number of modules
+     * @param classesPerModule
+     *         the number of classes in each module
+     * @param warningsPerClass
+     *         the number of warnings of each static analysis tool in each class
+     */
+    LargeProjectGenerator(final int modules, final int classesPerModule, final int warningsPerClass) {
+        this.modules = modules;
+        this.classesPerModule = classesPerModule;
+        this.warningsPerClass = warningsPerClass;
+    }
+
+    int getClasses() {
+        return modules * classesPerModule;
+    }
+
+    int getWarnings() {
+        return getClasses() * warningsPerClass;
+    }
+
+    /**
+     * Writes the reports of all modules into the specified folder.
+     *
+     * @param root
+     *         the root folder of the project
+     *
+     * @throws IOException
+     *         if the reports could not be written
+     */
+    void generate(final Path root) throws IOException {
+        for (int index = 0; index < modules; index++) {
+            var module = index;
+            var target = root.resolve(getModuleName(module)).resolve("target");
+            writeTests(target.resolve("surefire-reports"), module);
+            write(target.resolve("checkstyle-result.xml"), writer -> writeCheckstyle(writer, module));
+            write(target.resolve("pmd.xml"), writer -> writePmd(writer, module));
+            write(target.resolve("spotbugsXml.xml"), writer -> writeSpotBugs(writer, module));
+            write(target.resolve("site/jacoco/jacoco.xml"), writer -> writeJacoco(writer, module));
+            write(target.resolve("pit-reports/mutations.xml"), writer -> writeMutations(writer, module));
+            write(target.resolve("pmd-metrics.xml"), writer -> writeMetrics(writer, module));
+        }
+    }
+
+    /**
+     * Writes the unified diff of the pull request into the specified file.
+     *
+     * @param diff
+     *         the file to write the diff to
+     *
+     * @throws IOException
+     *         if the diff could not be written
+     */
+    void generateDiff(final Path diff) throws IOException {
+        write(diff, writer -> {
+            for (int module = 0; module < modules; module++) {
+                for (int type = 0; type < classesPerModule; type += CHANGED_CLASS_INTERVAL) {
+                    var path = getSourcePath(module, type);
+                    writer.write("diff --git a/%s b/%s%n".formatted(path, path));
+                    writer.write("index 1a2b3c4..5d6e7f8 100644\n");
+                    writer.write("--- a/%s%n+++ b/%s%n".formatted(path, path));
+                    writer.write("@@ -%d,2 +%d,%d @@ public class %s {%n".formatted(
+                            FIRST_LINE, FIRST_LINE, CHANGED_LINES + 2, getClassName(type)));
+                    writer.write("     public void method0() {\n");
+                    for (int line = 0; line < CHANGED_LINES; line++) {
+                        writer.write("+        value = value + %d;%n".formatted(line));
+                    }
+                    writer.write("     }\n");
+                }
+            }
+        });
+    }
+
+    private void writeTests(final Path folder, final int module) throws IOException {
+        for (int index = 0; index < classesPerModule; index++) {
+            var type = index;
+            var className = getQualifiedName(module, type) + "Test";
+            var failures = type % 7 == 0 ? 1 : 0;
+            write(folder.resolve("TEST-%s.xml".formatted(className)), writer -> {
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                writer.write(("<testsuite name=\"%s\" time=\"0.5\" tests=\"%d\" errors=\"0\" skipped=\"0\" "
+                        + "failures=\"%d\">%n").formatted(className, METHODS_PER_CLASS, failures));
+                for (int method = 0; method < METHODS_PER_CLASS; method++) {
+                    writer.write("  <testcase name=\"shouldTestMethod%d\" classname=\"%s\" time=\"0.01\"".formatted(
+                            method, className));
+                    if (method < failures) {
+                        writer.write((">%n    <failure message=\"expected: 1 but was: 2\" "
+                                + "type=\"org.opentest4j.AssertionFailedError\">"
+                                + "org.opentest4j.AssertionFailedError: expected: 1 but was: 2%n"
+                                + "\tat %s.shouldTestMethod%d(%sTest.java:%d)%n</failure>%n  </testcase>%n").formatted(
+                                className, method, getClassName(type), FIRST_LINE + method));
+                    }
+                    else {
+                        writer.write("/>\n");
+                    }
+                }
+                writer.write("</testsuite>\n");
+            });
+        }
+    }
+
+    private void writeCheckstyle(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<checkstyle version=\"10.12.5\">\n");
+        for (int type = 0; type < classesPerModule; type++) {
+            writer.write("<file name=\"%s\">%n".formatted(getSourcePath(module, type)));
+            for (int warning = 0; warning < warningsPerClass; warning++) {
+                writer.write(("<error line=\"%d\" column=\"5\" severity=\"warning\" message=\"Missing a Javadoc "
+                        + "comment.\" source=\"com.puppycrawl.tools.checkstyle.checks.javadoc."
+                        + "MissingJavadocMethodCheck\"/>%n").formatted(getLine(warning)));
+            }
+            writer.write("</file>\n");
+        }
+        writer.write("</checkstyle>\n");
+    }
+
+    private void writePmd(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<pmd xmlns=\"http://pmd.sourceforge.net/report/2.0.0\" version=\"7.0.0\">\n");
+        for (int type = 0; type < classesPerModule; type++) {
+            writer.write("<file name=\"%s\">%n".formatted(getSourcePath(module, type)));
+            for (int warning = 0; warning < warningsPerClass; warning++) {
+                var line = getLine(warning) + 1;
+                writer.write(("<violation beginline=\"%d\" endline=\"%d\" begincolumn=\"9\" endcolumn=\"20\" "
+                        + "rule=\"UnusedLocalVariable\" ruleset=\"Best Practices\" package=\"%s\" class=\"%s\" "
+                        + "priority=\"3\">%nAvoid unused local variables such as 'value'.%n</violation>%n").formatted(
+                        line, line, getPackageName(module), getClassName(type)));
+            }
+            writer.write("</file>\n");
+        }
+        writer.write("</pmd>\n");
+    }
+
+    private void writeSpotBugs(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        writer.write("<BugCollection sequence=\"0\" release=\"\" version=\"4.8.2\" timestamp=\"1701703218234\">\n");
+        writer.write("  <Project projectName=\"%s\">%n    <SrcDir>%s/src/main/java</SrcDir>%n  </Project>%n"
+                .formatted(getModuleName(module), getModuleName(module)));
+        for (int type = 0; type < classesPerModule; type++) {
+            var className = getQualifiedName(module, type);
+            var sourcePath = className.replace('.', '/') + ".java";
+            for (int warning = 0; warning < warningsPerClass; warning++) {
+                var line = getLine(warning) + 2;
+                writer.write(("  <BugInstance type=\"DLS_DEAD_LOCAL_STORE\" priority=\"2\" rank=\"15\" abbrev=\"DLS\" "
+                        + "category=\"STYLE\" instanceHash=\"%s\">%n").formatted(
+                        Integer.toHexString((className + warning).hashCode())));
+                writer.write("    <ShortMessage>Dead store to local variable</ShortMessage>\n");
+                writer.write("    <LongMessage>Dead store to value in %s.method%d()</LongMessage>%n".formatted(
+                        className, warning));
+                writer.write("    <Class classname=\"%s\" primary=\"true\"/>%n".formatted(className));
+                writer.write(("    <SourceLine classname=\"%s\" start=\"%d\" end=\"%d\" sourcefile=\"%s.java\" "
+                        + "sourcepath=\"%s\" primary=\"true\"/>%n").formatted(
+                        className, line, line, getClassName(type), sourcePath));
+                writer.write("  </BugInstance>\n");
+            }
+        }
+        writer.write("</BugCollection>\n");
+    }
+
+    private void writeJacoco(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<report name=\"%s\"><sessioninfo id=\"generated\" start=\"1\" dump=\"2\"/>".formatted(
+                getModuleName(module)));
+        var packageName = getPackageName(module).replace('.', '/');
+        writer.write("<package name=\"%s\">".formatted(packageName));
+        for (int type = 0; type < classesPerModule; type++) {
+            var className = getClassName(type);
+            writer.write("<class name=\"%s/%s\" sourcefilename=\"%s.java\">".formatted(
+                    packageName, className, className));
+            for (int method = 0; method < METHODS_PER_CLASS; method++) {
+                var covered = isCovered(type, method);
+                writer.write("<method name=\"method%d\" desc=\"()V\" line=\"%d\">".formatted(method,
+                        getMethodLine(method)));
+                writeCounters(writer, covered ? 0 : LINES_PER_METHOD, covered ? LINES_PER_METHOD : 0, 1);
+                writer.write("</method>");
+            }
+            writeClassCounters(writer, type);
+            writer.write("</class>");
+            writer.write("<sourcefile name=\"%s.java\">".formatted(className));
+            for (int method = 0; method < METHODS_PER_CLASS; method++) {
+                var covered = isCovered(type, method);
+                for (int line = 0; line < LINES_PER_METHOD; line++) {
+                    writer.write("<line nr=\"%d\" mi=\"%d\" ci=\"%d\" mb=\"0\" cb=\"0\"/>".formatted(
+                            getMethodLine(method) + line, covered ? 0 : 3, covered ? 3 : 0));
+                }
+            }
+            writeClassCounters(writer, type);
+            writer.write("</sourcefile>");
+        }
+        writer.write("</package></report>");
+    }
+
+    private void writeClassCounters(final Writer writer, final int type) throws IOException {
+        var coveredMethods = 0;
+        for (int method = 0; method < METHODS_PER_CLASS; method++) {
+            if (isCovered(type, method)) {
+                coveredMethods++;
+            }
+        }
+        var missedMethods = METHODS_PER_CLASS - coveredMethods;
+        writeCounters(writer, missedMethods * LINES_PER_METHOD, coveredMethods * LINES_PER_METHOD,
+                METHODS_PER_CLASS);
+    }
+
+    private void writeCounters(final Writer writer, final int missedLines, final int coveredLines,
+            final int methods) throws IOException {
+        var missedMethods = missedLines == 0 ? 0 : Math.max(1, methods * missedLines / (missedLines + coveredLines));
+        writer.write(("<counter type=\"INSTRUCTION\" missed=\"%d\" covered=\"%d\"/>"
+                + "<counter type=\"BRANCH\" missed=\"%d\" covered=\"%d\"/>"
+                + "<counter type=\"LINE\" missed=\"%d\" covered=\"%d\"/>"
+                + "<counter type=\"COMPLEXITY\" missed=\"%d\" covered=\"%d\"/>"
+                + "<counter type=\"METHOD\" missed=\"%d\" covered=\"%d\"/>").formatted(
+                missedLines * 3, coveredLines * 3, missedLines / 5, coveredLines / 5, missedLines, coveredLines,
+                missedMethods, methods - missedMethods, missedMethods, methods - missedMethods));
+    }
+
+    private void writeMutations(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<mutations partial=\"false\">\n");
+        for (int type = 0; type < classesPerModule; type++) {
+            var className = getQualifiedName(module, type);
+            for (int method = 0; method < METHODS_PER_CLASS; method++) {
+                var killed = isCovered(type, method);
+                writer.write(("  <mutation detected='%s' status='%s' numberOfTestsRun='%d'><sourceFile>%s.java"
+                        + "</sourceFile><mutatedClass>%s</mutatedClass><mutatedMethod>method%d</mutatedMethod>"
+                        + "<methodDescription>()V</methodDescription><lineNumber>%d</lineNumber>"
+                        + "<mutator>org.pitest.mutationtest.engine.gregor.mutators.NegateConditionalsMutator"
+                        + "</mutator><indexes><index>5</index></indexes><blocks><block>0</block></blocks>"
+                        + "<killingTest>%s</killingTest><description>negated conditional</description>"
+                        + "</mutation>%n").formatted(
+                        killed, killed ? "KILLED" : "SURVIVED", killed ? 1 : 0, getClassName(type), className,
+                        method, getMethodLine(method) + 1,
+                        killed ? className + "Test.[method:shouldTestMethod%d()]".formatted(method) : ""));
+            }
+        }
+        writer.write("</mutations>\n");
+    }
+
+    private void writeMetrics(final Writer writer, final int module) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<metrics version=\"7.5.0-metrics\" timestamp=\"2024-10-17T09:01:14.294\" source=\"PMD\">\n");
+        writer.write("<package name=\"%s\">%n".formatted(getPackageName(module)));
+        for (int type = 0; type < classesPerModule; type++) {
+            writer.write("<file name=\"%s\">%n<class name=\"%s\">%n".formatted(
+                    getSourcePath(module, type), getClassName(type)));
+            writer.write("<metric name=\"NCSS\" value=\"%d\"/>%n".formatted(METHODS_PER_CLASS * LINES_PER_METHOD));
+            for (int method = 0; method < METHODS_PER_CLASS; method++) {
+                var line = getMethodLine(method);
+                writer.write(("<method name=\"method%d\" beginline=\"%d\" endline=\"%d\" begincolumn=\"5\" "
+                        + "endcolumn=\"6\">%n").formatted(method, line, line + LINES_PER_METHOD - 1));
+                writer.write(String.format(Locale.ENGLISH, """
+                        <metric name="CognitiveComplexity" value="%d"/>
+                        <metric name="CyclomaticComplexity" value="%d"/>
+                        <metric name="NCSS" value="%d"/>
+                        <metric name="NPathComplexity" value="%d"/>
+                        </method>
+                        """, method % 4, method % 5 + 1, LINES_PER_METHOD, method % 3 + 1));
+            }
+            writer.write("</class>\n</file>\n");
+        }
+        writer.write("</package>\n</metrics>\n");
+    }
+
+    private boolean isCovered(final int type, final int method) {
+        return (type + method) % 3 != 0;
+    }
+
+    private int getLine(final int warning) {
+        return FIRST_LINE + warning * 3 % (METHODS_PER_CLASS * LINES_PER_METHOD);
+    }
+
+    private int getMethodLine(final int method) {
+        return FIRST_LINE + method * LINES_PER_METHOD;
+    }
+
+    private String getModuleName(final int module) {
+        return "module-%04d".formatted(module);
+    }
+
+    private String getPackageName(final int module) {
+        return "edu.hm.hafner.module%d".formatted(module);
+    }
+
+    private String getClassName(final int type) {
+        return "Generated%d".formatted(type);
+    }
+
+    private String getQualifiedName(final int module, final int type) {
+        return getPackageName(module) + "." + getClassName(type);
+    }
+
+    private String getSourcePath(final int module, final int type) {
+        return "%s/src/main/java/%s.java".formatted(getModuleName(module),
+                getQualifiedName(module, type).replace('.', '/'));
+    }
+
+    private void write(final Path file, final Content content) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            content.write(writer);
+        }
+    }
+
+    /**
+     * Writes the content of a report.
+     */
+    @FunctionalInterface
+    private interface Content {
+        void write(Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LineRangesTest {
+    @Test
+    void shouldCreateEmptyRanges() {
+        var ranges = new LineRanges.Builder().build();
+
+        assertThat(ranges).isEmpty().isSameAs(LineRanges.empty());
+        assertThat(ranges.overlaps(1, 100)).isFalse();
+        assertThat(ranges.getRangeCount()).isZero();
+        assertThat(ranges).hasToString("[]");
+    }
+
+    @Test
+    void shouldMergeOverlappingAndAdjacentRanges() {
+        var ranges = new LineRanges.Builder()
+                .add(20, 25)
+                .add(1, 3)
+                .add(4, 5)
+                .add(22, 30)
+                .add(10, 10)
+                .add(2, 2)
+                .build();
+
+        assertThat(ranges.getRangeCount()).isEqualTo(3);
+        assertThat(ranges).hasSize(5 + 1 + 11)
+                .hasToString("[1-5, 10, 20-30]")
+                .startsWith(1, 2, 3, 4, 5, 10, 20, 21)
+                .endsWith(30);
+    }
+
+    @Test
+    void shouldIgnoreEmptyRanges() {
+        var ranges = new LineRanges.Builder().add(5, 4).build();
+
+        assertThat(ranges).isEmpty();
+    }
+
+    @Test
+    void shouldFindOverlappingRanges() {
+        var ranges = new LineRanges.Builder().add(10, 20).add(40, 40).build();
+
+        assertThat(ranges.overlaps(1, 9)).isFalse();
+        assertThat(ranges.overlaps(1, 10)).isTrue();
+        assertThat(ranges.overlaps(15, 15)).isTrue();
+        assertThat(ranges.overlaps(20, 39)).isTrue();
+        assertThat(ranges.overlaps(21, 39)).isFalse();
+        assertThat(ranges.overlaps(1, 100)).isTrue();
+        assertThat(ranges.overlaps(41, 100)).isFalse();
+
+        assertThat(ranges.contains(10)).isTrue();
+        assertThat(ranges.contains(21)).isFalse();
+        assertThat(ranges.contains("10")).isFalse();
+    }
+
+    @Test
+    void shouldBeEqualToSetWithSameLines() {
+        var ranges = new LineRanges.Builder().add(1, 3).add(7, 7).build();
+
+        assertThat(ranges).isEqualTo(Set.of(1, 2, 3, 7));
+        assertThat(ranges).hasSameHashCodeAs(Set.of(1, 2, 3, 7));
+        assertThat(LineRanges.of(Set.of(7, 1, 3, 2))).isEqualTo(ranges).hasToString("[1-3, 7]");
+        assertThat(LineRanges.of(ranges)).isSameAs(ranges);
+    }
+}
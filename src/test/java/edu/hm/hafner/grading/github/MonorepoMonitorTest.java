@@ -0,0 +1,58 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MonorepoMonitorTest {
+    @Test
+    void shouldParseNamedConfigurationsInOrder() {
+        var log = new FilteredLog("Errors");
+
+        var configurations = MonorepoMonitor.parse("""
+                {
+                  "frontend": {"analysis": [{"tools": [{"id": "eslint", "pattern": "frontend/**/eslint.xml"}]}]},
+                  "backend": {"coverage": [{"tools": [{"id": "jacoco", "pattern": "backend/**/jacoco.xml"}]}]}
+                }
+                """, log);
+
+        assertThat(log.getErrorMessages()).isEmpty();
+        assertThat(configurations).containsOnlyKeys("frontend", "backend");
+        assertThat(configurations.keySet()).containsExactly("frontend", "backend");
+        assertThat(configurations.get("backend"))
+                .isEqualTo("{\"coverage\":[{\"tools\":[{\"id\":\"jacoco\",\"pattern\":\"backend/**/jacoco.xml\"}]}]}");
+    }
+
+    @Test
+    void shouldSkipInvalidConfigurations() {
+        var log = new FilteredLog("Errors");
+
+        var configurations = MonorepoMonitor.parse("""
+                {
+                  "api/v1": {},
+                  "docs": "none",
+                  "web-app_2.0": {}
+                }
+                """, log);
+
+        assertThat(configurations).containsOnlyKeys("web-app_2.0");
+        assertThat(log.getErrorMessages()).contains(
+                "Skipping configuration 'api/v1': names may contain only letters, digits, '.', '-', and '_'",
+                "Skipping configuration 'docs': the configuration must be a JSON object");
+    }
+
+    @Test
+    void shouldRejectConfigurationsThatAreNoObject() {
+        var log = new FilteredLog("Errors");
+
+        assertThat(MonorepoMonitor.parse("[{}]", log)).isEmpty();
+        assertThat(log.getErrorMessages())
+                .contains("The named configurations must be a JSON object that maps names to configurations");
+
+        assertThat(MonorepoMonitor.parse("{", log)).isEmpty();
+        assertThat(log.getErrorMessages()).anySatisfy(
+                message -> assertThat(message).contains("Can't parse the named configurations"));
+    }
+}
@@ -0,0 +1,108 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PathResolverTest {
+    private static final String FOO = "module-a/src/main/java/edu/hm/hafner/Foo.java";
+    private static final String OTHER_FOO = "module-b/src/main/java/edu/hm/hafner/other/Foo.java";
+    private static final String BAR = "src/main/java/edu/hm/hafner/Bar.java";
+
+    private final PathResolver resolver = new PathResolver(List.of(FOO, OTHER_FOO, BAR),
+            _ -> List.of(FOO, OTHER_FOO, BAR, "src/main/java/edu/hm/hafner/Other.java"),
+            "", "/github/workspace/./", "/github/workspace/", "/home/runner/work/repo/repo", "C:\\workspace");
+
+    @Test
+    void shouldResolveRepositoryRelativePaths() {
+        assertThat(resolver.resolve(FOO)).isEqualTo(FOO);
+        assertThat(resolver.resolve(OTHER_FOO)).isEqualTo(OTHER_FOO);
+        assertThat(resolver.resolve("./" + BAR)).isEqualTo(BAR);
+    }
+
+    @Test
+    void shouldResolveAbsolutePaths() {
+        assertThat(resolver.resolve("/github/workspace/./" + FOO)).isEqualTo(FOO);
+        assertThat(resolver.resolve("/home/runner/work/repo/repo/" + BAR)).isEqualTo(BAR);
+        assertThat(resolver.resolve("C:\\workspace\\src\\main\\java\\edu\\hm\\hafner\\Bar.java")).isEqualTo(BAR);
+    }
+
+    @Test
+    void shouldResolvePathsRelativeToSourceFolders() {
+        assertThat(resolver.resolve("edu/hm/hafner/Foo.java")).isEqualTo(FOO);
+        assertThat(resolver.resolve("edu/hm/hafner/other/Foo.java")).isEqualTo(OTHER_FOO);
+        assertThat(resolver.resolve("hafner/Bar.java")).isEqualTo(BAR);
+        assertThat(resolver.resolve("src/main/java/edu/hm/hafner/Foo.java")).isEqualTo(FOO);
+    }
+
+    @Test
+    void shouldNotResolveAmbiguousOrUnchangedPaths() {
+        assertThat(resolver.resolve("Foo.java")).isEqualTo("Foo.java");
+        assertThat(resolver.resolve("/github/workspace/./src/main/java/Unchanged.java"))
+                .isEqualTo("src/main/java/Unchanged.java");
+        assertThat(resolver.resolve("/home/runner/work/repo/repo/module-c/src/main/java/edu/hm/Foo.java"))
+                .isEqualTo("module-c/src/main/java/edu/hm/Foo.java");
+        assertThat(resolver.resolve("other/Bar.java")).isEqualTo("other/Bar.java");
+    }
+
+    @Test
+    void shouldNotResolveFilesWithTheSameNameInOtherModules() {
+        var modules = new PathResolver(List.of("pom.xml", "src/Foo.java"), "/github/workspace/");
+
+        assertThat(modules.resolve("/github/workspace/pom.xml")).isEqualTo("pom.xml");
+        assertThat(modules.resolve("/github/workspace/src/Foo.java")).isEqualTo("src/Foo.java");
+        assertThat(modules.resolve("/github/workspace/module-b/pom.xml")).isEqualTo("module-b/pom.xml");
+        assertThat(modules.resolve("/github/workspace/module-b/src/Foo.java")).isEqualTo("module-b/src/Foo.java");
+        assertThat(modules.resolve("/ws/other/src/Foo.java")).isEqualTo("/ws/other/src/Foo.java");
+    }
+
+    @Test
+    void shouldNotResolvePackagePathsOfUnchangedModules() {
+        var changed = "module-a/src/main/java/edu/Foo.java";
+        var unchanged = "module-b/src/main/java/edu/Foo.java";
+        var modules = new PathResolver(List.of(changed), _ -> List.of(changed, unchanged), "/github/workspace/");
+
+        assertThat(modules.resolve("edu/Foo.java")).isEqualTo("edu/Foo.java");
+        assertThat(modules.resolve("/github/workspace/" + changed)).isEqualTo(changed);
+        assertThat(modules.resolve("/github/workspace/" + unchanged)).isEqualTo(unchanged);
+    }
+
+    @Test
+    void shouldNotResolvePackagePathsWithoutProjectFiles() {
+        var modules = new PathResolver(List.of(FOO), "/github/workspace/");
+
+        assertThat(modules.resolve("edu/hm/hafner/Foo.java")).isEqualTo("edu/hm/hafner/Foo.java");
+        assertThat(modules.resolve("/github/workspace/" + FOO)).isEqualTo(FOO);
+    }
+
+    @Test
+    void shouldFindProjectFilesWithTheNamesOfTheChangedFiles(@TempDir final Path workspace) throws IOException {
+        createFile(workspace.resolve(FOO));
+        createFile(workspace.resolve(OTHER_FOO));
+        createFile(workspace.resolve(BAR));
+        createFile(workspace.resolve(".git/Foo.java"));
+
+        assertThat(PathResolver.ProjectFiles.in(workspace).find(Set.of("Foo.java")))
+                .containsExactlyInAnyOrder(FOO, OTHER_FOO);
+    }
+
+    private void createFile(final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+    }
+
+    @Test
+    void shouldResolveWithoutChangedFiles() {
+        var empty = new PathResolver(List.of(), "/github/workspace/");
+
+        assertThat(empty.resolve("/github/workspace/src/Foo.java")).isEqualTo("src/Foo.java");
+        assertThat(empty.resolve("src/Foo.java")).isEqualTo("src/Foo.java");
+    }
+}
@@ -0,0 +1,103 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetEnvironmentVariable;
+
+import edu.hm.hafner.grading.github.ReportPatternScanner.ToolScan;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PerformanceReportTest {
+    @Test
+    @SetEnvironmentVariable(key = "PERFORMANCE_REPORT", value = "true")
+    @SetEnvironmentVariable(key = "PERFORMANCE_BUDGET", value = "3")
+    void shouldCreateReportFromEnvironment() {
+        var report = PerformanceReport.fromEnvironment();
+
+        assertThat(report.isEnabled()).isTrue();
+        assertThat(report.getBudget()).isEqualTo(3);
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "PERFORMANCE_BUDGET", value = "soon")
+    void shouldBeDisabledByDefault() {
+        var report = PerformanceReport.fromEnvironment();
+
+        assertThat(report.isEnabled()).isFalse();
+        assertThat(report.getBudget()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldRecordPhases() {
+        var report = new PerformanceReport(true, 1);
+
+        try (var _ = report.start("Loading the changed lines")) {
+            assertThat(report.getPhases()).isEmpty();
+        }
+
+        assertThat(report.getPhases()).hasSize(1).first().satisfies(
+                phase -> assertThat(phase.name()).isEqualTo("Loading the changed lines"));
+    }
+
+    @Test
+    void shouldReportGitHubRequestsOnlyInTheSharedReport() {
+        var shared = new PerformanceReport(true, 3);
+        var configuration = shared.forConfiguration();
+
+        configuration.record("Creating the check run", Duration.ofMillis(250));
+        shared.recordCall("POST", URI.create("https://api.github.com/repos/owner/repo/check-runs"), 201,
+                Duration.ofMillis(200));
+
+        assertThat(configuration.isEnabled()).isTrue();
+        assertThat(configuration.getBudget()).isEqualTo(3);
+        assertThat(configuration.getCalls()).isEmpty();
+        assertThat(configuration.toMarkdown()).contains("| Creating the check run | 250 ms |")
+                .doesNotContain("GitHub requests");
+        assertThat(configuration.toMetrics().lines()).containsExactly("performance_creating_the_check_run_ms=250");
+
+        assertThat(shared.getPhases()).isEmpty();
+        assertThat(shared.toCallMetrics().lines()).containsExactly(
+                "performance_github_requests=1",
+                "performance_github_ms=200");
+    }
+
+    @Test
+    void shouldCreateMarkdownAndMetrics() {
+        var report = new PerformanceReport(true, 1);
+
+        report.record("Creating the check run", Duration.ofMillis(250));
+        report.recordCall("POST", URI.create("https://api.github.com/repos/owner/repo/check-runs"), 201,
+                Duration.ofMillis(200));
+        report.recordCall("GET", URI.create("https://api.github.com/repos/owner/repo?page=2"), 200,
+                Duration.ofMillis(50));
+        var large = new ToolScan("checkstyle", "CheckStyle", "**/checkstyle-result.xml", 2, 3 * 1024 * 1024, 12);
+        var small = new ToolScan("jacoco", "JaCoCo", "**/jacoco.xml", 1, 512, -1);
+        report.addTools(List.of(large, small, small));
+
+        assertThat(report.getToolsOverBudget()).containsExactly(large);
+        assertThat(report.toMarkdown())
+                .contains("<summary>Performance</summary>",
+                        "| Creating the check run | 250 ms |",
+                        "| :warning: CheckStyle | `**/checkstyle-result.xml` | 2 | 3 MB | 12 |",
+                        "| JaCoCo | `**/jacoco.xml` | 1 | 512 B | - |",
+                        "tools with report files of more than 1 MB are marked with :warning:",
+                        "2 GitHub requests took 250 ms in total",
+                        "| `POST /repos/owner/repo/check-runs` | 201 | 200 ms |",
+                        "| `GET /repos/owner/repo` | 200 | 50 ms |");
+        assertThat(report.toMetrics().lines()).containsExactly(
+                "performance_creating_the_check_run_ms=250",
+                "performance_tool_checkstyle_files=2",
+                "performance_tool_checkstyle_bytes=3145728",
+                "performance_tool_checkstyle_records=12",
+                "performance_tool_jacoco_files=1",
+                "performance_tool_jacoco_bytes=512",
+                "performance_tool_jacoco_2_files=1",
+                "performance_tool_jacoco_2_bytes=512",
+                "performance_github_requests=2",
+                "performance_github_ms=250");
+    }
+}
@@ -0,0 +1,75 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.util.FilteredLog;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrefetchedChangedLinesTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void shouldProvideChangedLinesOfBackgroundTask() {
+        var changedLines = PrefetchedChangedLines.start(log -> {
+            log.logInfo("Loaded diff");
+            return Map.of("src/main/java/Main.java", Set.of(1, 2, 3));
+        }, TIMEOUT);
+
+        var log = new FilteredLog();
+        changedLines.setLog(log);
+
+        assertThat(changedLines).hasSize(1)
+                .containsEntry("src/main/java/Main.java", Set.of(1, 2, 3))
+                .doesNotContainKey("README.md");
+        assertThat(log.getInfoMessages()).containsExactly("Loaded diff");
+        assertThat(log.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    void shouldBeEmptyIfBackgroundTaskFails() {
+        var changedLines = PrefetchedChangedLines.start(log -> {
+            log.logError("Cannot connect to GitHub");
+            throw new IllegalStateException("Diff not available");
+        }, TIMEOUT);
+
+        var log = new FilteredLog();
+        changedLines.setLog(log);
+
+        assertThat(changedLines).isEmpty();
+        assertThat(log.getErrorMessages()).contains("Cannot connect to GitHub")
+                .anySatisfy(message -> assertThat(message).contains("Failed to load the changed lines"));
+    }
+
+    @Test
+    void shouldBeEmptyIfBackgroundTaskDoesNotFinishInTime() {
+        var finished = new CountDownLatch(1);
+        var changedLines = PrefetchedChangedLines.start(log -> {
+            try {
+                finished.await();
+            }
+            catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+            }
+            log.logInfo("Loaded diff");
+            return Map.of("src/main/java/Main.java", Set.of(1));
+        }, Duration.ofMillis(50));
+
+        var log = new FilteredLog();
+        changedLines.setLog(log);
+
+        assertThat(changedLines).isEmpty();
+        assertThat(log.getErrorMessages()).anySatisfy(
+                message -> assertThat(message).contains("did not finish"));
+        assertThat(log.getInfoMessages()).doesNotContain("Loaded diff");
+
+        finished.countDown();
+
+        assertThat(changedLines).isEmpty();
+    }
+}
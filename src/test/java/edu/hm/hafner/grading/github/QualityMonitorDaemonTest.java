@@ -0,0 +1,129 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QualityMonitorDaemonTest {
+    @Test
+    void shouldCreateRequestThatIsParsedByDaemon(@TempDir final Path root) throws IOException {
+        var workspace = Files.createDirectory(root.resolve("repo"));
+        var request = QualityMonitorClient.createRequest(workspace,
+                Map.of("CONFIG", "{\"pattern\": \"a\\\\b\"}", "MULTI_LINE", "first\nsecond\ttab"));
+
+        assertThat(request).endsWith("}}\n").doesNotContain("first\n");
+
+        var daemon = new QualityMonitorDaemon(root.resolve("daemon.sock"), root, System.out);
+        var job = daemon.parse(request);
+        var values = new AtomicReference<String>();
+        job.run(() -> values.set(JobEnvironment.getEnv("CONFIG") + "|" + JobEnvironment.getEnv("MULTI_LINE")
+                + "|" + JobEnvironment.getRelativeWorkspace()));
+
+        assertThat(values).hasValue("{\"pattern\": \"a\\\\b\"}|first\nsecond\ttab|repo");
+    }
+
+    @Test
+    void shouldRejectInvalidJobs(@TempDir final Path root) {
+        var daemon = new QualityMonitorDaemon(root.resolve("daemon.sock"), root, System.out);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> daemon.parse("{"))
+                .withMessageContaining("The job is no valid JSON");
+        assertThatIllegalArgumentException().isThrownBy(() -> daemon.parse("{\"environment\": {}}"))
+                .withMessage("The job has no workspace");
+        assertThatIllegalArgumentException().isThrownBy(
+                        () -> daemon.parse(QualityMonitorClient.createRequest(root.resolve("missing"), Map.of())))
+                .withMessageEndingWith("does not exist");
+    }
+
+    @Test
+    void shouldRejectWorkspaceThatLinksOutsideOfRoot(@TempDir final Path root, @TempDir final Path outside)
+            throws IOException {
+        var link = Files.createSymbolicLink(root.resolve("link"), outside);
+        var daemon = new QualityMonitorDaemon(root.resolve("daemon.sock"), root, System.out);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> daemon.parse(QualityMonitorClient.createRequest(link, Map.of())))
+                .withMessageContaining("is not a folder below");
+    }
+
+    @Test
+    void shouldCreateSocketInPrivateFolder(@TempDir final Path root) throws IOException {
+        var socket = root.resolve("private/daemon.sock");
+
+        try (var daemon = new QualityMonitorDaemon(socket, root, System.out)) {
+            daemon.start();
+
+            assertThat(socket).exists();
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(socket.getParent())))
+                    .isEqualTo("rwx------");
+        }
+        assertThat(socket).doesNotExist();
+    }
+
+    @Test
+    void shouldRefuseSocketInSharedFolder(@TempDir final Path root) throws IOException {
+        var shared = Files.createDirectory(root.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        try (var daemon = new QualityMonitorDaemon(shared.resolve("daemon.sock"), root, System.out)) {
+            assertThatIOException().isThrownBy(daemon::start)
+                    .withMessageContaining("is accessible by other users (rwxr-xr-x)");
+        }
+    }
+
+    @Test
+    void shouldRejectJobsWithOtherQualityGates(@TempDir final Path root) {
+        var daemon = new QualityMonitorDaemon(root.resolve("daemon.sock"), root, System.out);
+        var request = QualityMonitorClient.createRequest(root,
+                Map.of("QUALITY_GATES", "{\"qualityGates\": [{\"metric\": \"line\", \"threshold\": 100.0}]}"));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> daemon.parse(request))
+                .withMessageStartingWith("The job uses other quality gates than the daemon");
+    }
+
+    @Test
+    void shouldSendLogOfJobToClient(@TempDir final Path root, @TempDir final Path outside)
+            throws IOException, InterruptedException {
+        var socket = root.resolve("private/daemon.sock");
+        var daemonLog = new ByteArrayOutputStream();
+
+        try (var daemon = new QualityMonitorDaemon(socket, root, new PrintStream(daemonLog, true,
+                StandardCharsets.UTF_8))) {
+            daemon.start();
+            var server = Thread.ofVirtual().start(() -> {
+                try {
+                    daemon.serve();
+                }
+                catch (IOException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            });
+
+            var output = new ByteArrayOutputStream();
+            assertThat(QualityMonitorClient.send(socket, outside, Map.of(), output)).isFalse();
+
+            assertThat(output.toString(StandardCharsets.UTF_8))
+                    .startsWith(QualityMonitorClient.REJECTED + "Workspace")
+                    .contains("is not a folder below");
+
+            daemon.close();
+            server.join();
+        }
+
+        assertThat(daemonLog.toString(StandardCharsets.UTF_8))
+                .contains("Quality monitor daemon is listening on")
+                .contains("Job 1 rejected");
+        assertThat(socket).doesNotExist();
+    }
+}
@@ -1,6 +1,7 @@
 package edu.hm.hafner.grading.github;
 
 import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.output.ToStringConsumer;
 import org.testcontainers.containers.output.WaitingConsumer;
@@ -10,6 +11,7 @@ import org.testcontainers.utility.MountableFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -127,6 +129,9 @@ class QualityMonitorDockerITest {
             """;
     private static final String WS = "/github/workspace/target/";
     private static final String LOCAL_METRICS_FILE = "target/metrics.env";
+    private static final int STARTUP_RUNS = 3;
+    private static final String IMAGE = "uhafner/quality-monitor:4.16.0-SNAPSHOT";
+    private static final long MB = 1024 * 1024;
 
     @Test
     void shouldGradeInDockerContainer() throws TimeoutException, IOException {
@@ -238,8 +243,57 @@ class QualityMonitorDockerITest {
         }
     }
 
+    @Test
+    void shouldStartFasterWithAotCache() throws TimeoutException {
+        var withoutCache = measureStartup("-XX:AOTMode=off");
+        // AOTMode=on stops the JVM if the entrypoint does not use the cache or the cache does not match the image
+        var withCache = measureStartup("-XX:AOTMode=on");
+
+        assertThat(withCache)
+                .as("Run with AOT cache took %d ms, run without AOT cache took %d ms",
+                        withCache.toMillis(), withoutCache.toMillis())
+                .isLessThan(withoutCache);
+    }
+
+    /**
+     * Verifies the size of the image, the jlink profile sets an upper bound with the system property
+     * {@code quality-monitor.max-image-size}.
+     */
+    @Test
+    void shouldNotExceedImageSize() {
+        var size = DockerClientFactory.instance().client().inspectImageCmd(IMAGE).exec().getSize();
+        var maximum = Long.getLong("quality-monitor.max-image-size", Long.MAX_VALUE);
+
+        assertThat(size)
+                .as("Image %s has %d MB, the maximum is %d MB", IMAGE, size / MB, maximum / MB)
+                .isPositive()
+                .isLessThanOrEqualTo(maximum);
+    }
+
+    /**
+     * Measures the fastest of several runs of the action, the run includes starting the container and the JVM.
+     */
+    private Duration measureStartup(final String javaOptions) throws TimeoutException {
+        var fastest = Duration.ofDays(1);
+        for (int run = 0; run < STARTUP_RUNS; run++) {
+            try (var container = createContainer()) {
+                container.withEnv("JDK_JAVA_OPTIONS", javaOptions);
+
+                var start = System.nanoTime();
+                startContainerWithAllFiles(container);
+                assertThat(readStandardOut(container)).contains("=> Code Coverage: 10.23% (307 missed items)");
+                var duration = Duration.ofNanos(System.nanoTime() - start);
+
+                if (duration.compareTo(fastest) < 0) {
+                    fastest = duration;
+                }
+            }
+        }
+        return fastest;
+    }
+
     private GenericContainer<?> createContainer() {
-        return new GenericContainer<>(DockerImageName.parse("uhafner/quality-monitor:4.16.0-SNAPSHOT"));
+        return new GenericContainer<>(DockerImageName.parse(IMAGE));
     }
 
     private String readStandardOut(final GenericContainer<? extends GenericContainer<?>> container)
@@ -0,0 +1,296 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetEnvironmentVariable;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the whole action for a large synthetic project (see {@link LargeProjectGenerator}) against a local stub of the
+ * GitHub API. The test records the wall time, the peak heap usage, and the allocated memory of the run and fails if
+ * one of the configured limits is exceeded. The size of the project and the limits are configured with system
+ * properties, e.g. {@code mvn verify -Dit.test=QualityMonitorScaleITest -Dscale.modules=2000}:
+ * <ul>
+ *     <li>{@code scale.modules}: the number of modules (default: 100)</li>
+ *     <li>{@code scale.classes}: the number of classes per module (default: 20)</li>
+ *     <li>{@code scale.warnings}: the number of warnings per class and tool (default: 2)</li>
+ *     <li>{@code scale.max-seconds}: the maximum wall time of the run (default: 120)</li>
+ *     <li>{@code scale.max-heap-mb}: the maximum peak heap usage (default: 2048)</li>
+ *     <li>{@code scale.max-allocated-mb}: the maximum allocated memory of the run (default: 16384)</li>
+ * </ul>
+ * The results are written to {@code target/scale-test-result.json}.
+ */
+class QualityMonitorScaleITest {
+    private static final Path PROJECT = Path.of("target", "scale-project");
+    private static final Path DIFF = Path.of("target", "scale-project.diff");
+    private static final Path RESULT = Path.of("target", "scale-test-result.json");
+
+    private static final LargeProjectGenerator GENERATOR = new LargeProjectGenerator(
+            Integer.getInteger("scale.modules", 100),
+            Integer.getInteger("scale.classes", 20),
+            Integer.getInteger("scale.warnings", 2));
+    private static final Duration MAX_DURATION = Duration.ofSeconds(Long.getLong("scale.max-seconds", 120));
+    private static final long MAX_HEAP_MB = Long.getLong("scale.max-heap-mb", 2048);
+    private static final long MAX_ALLOCATED_MB = Long.getLong("scale.max-allocated-mb", 16_384);
+    private static final long MB = 1024 * 1024;
+
+    private static final String CONFIGURATION = """
+            {
+              "tests": {
+                "tools": [
+                  {
+                    "id": "junit",
+                    "pattern": "**/scale-project/**/TEST*.xml"
+                  }
+                ]
+              },
+              "analysis": [
+                {
+                  "name": "Style",
+                  "id": "style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "pattern": "**/scale-project/**/checkstyle-result.xml"
+                    },
+                    {
+                      "id": "pmd",
+                      "pattern": "**/scale-project/**/pmd.xml"
+                    }
+                  ]
+                },
+                {
+                  "name": "Bugs",
+                  "id": "bugs",
+                  "tools": [
+                    {
+                      "id": "spotbugs",
+                      "pattern": "**/scale-project/**/spotbugsXml.xml"
+                    }
+                  ]
+                }
+              ],
+              "coverage": [
+                {
+                  "name": "JaCoCo",
+                  "tools": [
+                    {
+                      "id": "jacoco",
+                      "metric": "line",
+                      "pattern": "**/scale-project/**/jacoco.xml"
+                    },
+                    {
+                      "id": "jacoco",
+                      "metric": "branch",
+                      "pattern": "**/scale-project/**/jacoco.xml"
+                    }
+                  ]
+                },
+                {
+                  "name": "PIT",
+                  "tools": [
+                    {
+                      "id": "pit",
+                      "metric": "mutation",
+                      "pattern": "**/scale-project/**/mutations.xml"
+                    }
+                  ]
+                }
+              ],
+              "metrics": [
+                {
+                  "name": "Metrics",
+                  "tools": [
+                    {
+                      "id": "metrics",
+                      "pattern": "**/scale-project/**/pmd-metrics.xml",
+                      "metric": "CyclomaticComplexity"
+                    },
+                    {
+                      "id": "metrics",
+                      "pattern": "**/scale-project/**/pmd-metrics.xml",
+                      "metric": "NCSS"
+                    }
+                  ]
+                }
+              ]
+            }
+            """;
+
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private HttpServer server;
+
+    @BeforeAll
+    static void generateProject() throws IOException {
+        deleteProject();
+        GENERATOR.generate(PROJECT);
+        GENERATOR.generateDiff(DIFF);
+    }
+
+    @AfterAll
+    static void deleteProject() throws IOException {
+        if (Files.exists(PROJECT)) {
+            try (var files = Files.walk(PROJECT)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.deleteIfExists(DIFF);
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "GITHUB_REPOSITORY", value = "owner/repo")
+    @SetEnvironmentVariable(key = "GITHUB_TOKEN", value = "token")
+    @SetEnvironmentVariable(key = "GITHUB_SHA", value = "0123456789abcdef")
+    @SetEnvironmentVariable(key = "PR_NUMBER", value = "1")
+    void shouldMonitorLargeProjectWithinLimits() throws IOException {
+        var heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        var allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        var start = System.nanoTime();
+
+        var output = runQualityMonitor();
+
+        var duration = Duration.ofNanos(System.nanoTime() - start);
+        var allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        var peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        writeResult(duration, peakHeap, allocated);
+
+        assertThat(output).contains("Processing 2 static analysis configuration(s)",
+                "-> CheckStyle (checkstyle):",
+                "Successfully created check",
+                "Successfully created new comment for PR#1");
+        assertThat(requests).contains("POST /repos/owner/repo/check-runs",
+                "GET /repos/owner/repo/pulls/1 (diff)",
+                "POST /repos/owner/repo/issues/1/comments")
+                .anySatisfy(request -> assertThat(request).startsWith("PATCH /repos/owner/repo/check-runs/"));
+
+        assertThat(duration).as("Wall time").isLessThanOrEqualTo(MAX_DURATION);
+        assertThat(peakHeap / MB).as("Peak heap in MB").isLessThanOrEqualTo(MAX_HEAP_MB);
+        assertThat(allocated / MB).as("Allocated memory in MB").isLessThanOrEqualTo(MAX_ALLOCATED_MB);
+    }
+
+    private String runQualityMonitor() {
+        var apiUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+        var connection = new GitHubConnection("token", apiUrl, apiUrl + "/graphql", Duration.ofSeconds(60),
+                HttpResponseCache.create(""), HttpClient.newHttpClient(),
+                new PerformanceReport(true, 10));
+
+        var outputStream = new ByteArrayOutputStream();
+        new QualityMonitor(new PrintStream(outputStream, true, StandardCharsets.UTF_8), connection).run();
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeResult(final Duration duration, final long peakHeap, final long allocated) throws IOException {
+        var seconds = Math.max(duration.toMillis(), 1) / 1000.0;
+        Files.writeString(RESULT, String.format(Locale.ENGLISH, """
+                {
+                  "classes": %d,
+                  "warnings": %d,
+                  "wallTimeMillis": %d,
+                  "peakHeapMb": %d,
+                  "allocatedMb": %d,
+                  "allocationRateMbPerSecond": %.1f
+                }
+                """, GENERATOR.getClasses(), GENERATOR.getWarnings(), duration.toMillis(), peakHeap / MB,
+                allocated / MB, allocated / MB / seconds));
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        var path = exchange.getRequestURI().getPath();
+        exchange.getRequestBody().readAllBytes();
+
+        var accept = exchange.getRequestHeaders().getFirst("Accept");
+        if ("GET".equals(method) && path.endsWith("/pulls/1") && accept != null && accept.contains("diff")) {
+            requests.add("%s %s (diff)".formatted(method, path));
+            respond(exchange, 200, "text/plain", Files.readAllBytes(DIFF));
+            return;
+        }
+        requests.add("%s %s".formatted(method, path));
+
+        var baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+        var body = switch (method + " " + path) {
+            case "GET /repos/owner/repo" -> """
+                    {"id": 1, "name": "repo", "full_name": "owner/repo", "owner": {"login": "owner"},
+                     "url": "%1$s/repos/owner/repo", "html_url": "%1$s/owner/repo"}
+                    """.formatted(baseUrl);
+            case "GET /repos/owner/repo/pulls/1" -> """
+                    {"id": 1, "number": 1, "url": "%1$s/repos/owner/repo/pulls/1",
+                     "issue_url": "%1$s/repos/owner/repo/issues/1"}
+                    """.formatted(baseUrl);
+            case "POST /graphql" -> """
+                    {"data": {"repository": {"pullRequest": {"comments": {
+                      "pageInfo": {"hasPreviousPage": false, "startCursor": null}, "nodes": []}}}}}
+                    """;
+            case "POST /repos/owner/repo/issues/1/comments" -> """
+                    {"id": 7, "body": "comment", "html_url": "%s/owner/repo/pull/1#issuecomment-7"}
+                    """.formatted(baseUrl);
+            default -> {
+                if (path.startsWith("/repos/owner/repo/check-runs")) {
+                    yield """
+                            {"id": 42, "name": "Quality Monitor", "head_sha": "0123456789abcdef",
+                             "status": "completed", "details_url": "%s/owner/repo/runs/42"}
+                            """.formatted(baseUrl);
+                }
+                yield "{}";
+            }
+        };
+        respond(exchange, "POST".equals(method) ? 201 : 200, "application/json",
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String contentType,
+            final byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (var output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -1,17 +1,53 @@
 package edu.hm.hafner.grading.github;
 
 import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetEnvironmentVariable;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 
 import edu.hm.hafner.util.FilteredLog;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static edu.hm.hafner.grading.github.QualityMonitor.*;
 import static org.assertj.core.api.Assertions.*;
 
 class QualityMonitorTest {
+    private static final String CONFIGURATION = """
+            {
+              "analysis": [
+                {
+                  "name": "Style",
+                  "id": "style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "pattern": "**/src/**/checkstyle*.xml"
+                    }
+                  ]
+                }
+              ]
+            }
+            """;
+    private static final String CREATE_CHECK_RUN = "POST /repos/owner/repo/check-runs";
+    private static final String UPLOAD_ANNOTATIONS = "PATCH /repos/owner/repo/check-runs/42 (annotations)";
+    private static final String UPDATE_DETAILS = "PATCH /repos/owner/repo/check-runs/42 (details)";
+
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+
     @Test
     void shouldCreateInstance() {
         var qualityMonitor = new QualityMonitor();
@@ -19,6 +55,16 @@ class QualityMonitorTest {
         assertThat(qualityMonitor.getDefaultConfigurationPath()).isEqualTo("/default-no-score-config.json");
     }
 
+    @Test
+    void shouldFormatMetrics() {
+        var metrics = new LinkedHashMap<String, Integer>();
+        metrics.put("line", 85);
+        metrics.put("checkstyle", 3);
+
+        assertThat(formatMetrics(metrics).lines()).containsExactly("line=85", "checkstyle=3");
+        assertThat(formatMetrics(Map.of())).isEmpty();
+    }
+
     @Test
     void shouldCheckReferenceReports() throws IOException {
         var qualityMonitor = new QualityMonitor();
@@ -32,4 +78,73 @@ class QualityMonitorTest {
 
         assertThat(qualityMonitor.fetchDeltaReportsFromPreviousPipeline(log)).contains(referenceReports);
     }
+
+    @Test
+    @SetEnvironmentVariable(key = "CONFIG", value = CONFIGURATION)
+    @SetEnvironmentVariable(key = "GITHUB_REPOSITORY", value = "owner/repo")
+    @SetEnvironmentVariable(key = "GITHUB_TOKEN", value = "token")
+    @SetEnvironmentVariable(key = "GITHUB_SHA", value = "0123456789abcdef")
+    void shouldUpdateDetailsOfCheckRunAfterAnnotations() throws IOException {
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        var output = new ByteArrayOutputStream();
+        try {
+            var apiUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+            var connection = new GitHubConnection("token", apiUrl, apiUrl + "/graphql", Duration.ofSeconds(60),
+                    HttpResponseCache.create(""), HttpClient.newHttpClient(),
+                    new PerformanceReport(true, 10));
+
+            new QualityMonitor(new PrintStream(output, true, StandardCharsets.UTF_8), connection).run();
+        }
+        finally {
+            server.stop(0);
+        }
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("Successfully created check");
+        var checkRunRequests = requests.stream().filter(request -> request.contains("/check-runs")).toList();
+        assertThat(checkRunRequests).hasSizeGreaterThan(2);
+        assertThat(checkRunRequests.getFirst()).isEqualTo(CREATE_CHECK_RUN);
+        assertThat(checkRunRequests.subList(1, checkRunRequests.size() - 1)).containsOnly(UPLOAD_ANNOTATIONS);
+        assertThat(checkRunRequests.getLast()).isEqualTo(UPDATE_DETAILS);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        var path = exchange.getRequestURI().getPath();
+        var request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        if ("PATCH".equals(method)) {
+            requests.add("%s %s (%s)".formatted(method, path,
+                    request.contains("\"annotations\"") ? "annotations" : "details"));
+        }
+        else {
+            requests.add("%s %s".formatted(method, path));
+        }
+
+        var baseUrl = "http://localhost:%d".formatted(exchange.getLocalAddress().getPort());
+        String body;
+        if ("/repos/owner/repo".equals(path)) {
+            body = """
+                    {"id": 1, "name": "repo", "full_name": "owner/repo", "owner": {"login": "owner"},
+                     "url": "%1$s/repos/owner/repo", "html_url": "%1$s/owner/repo"}
+                    """.formatted(baseUrl);
+        }
+        else if (path.startsWith("/repos/owner/repo/check-runs")) {
+            body = """
+                    {"id": 42, "name": "Quality Monitor", "head_sha": "0123456789abcdef",
+                     "status": "completed", "details_url": "%s/owner/repo/runs/42"}
+                    """.formatted(baseUrl);
+        }
+        else {
+            body = "{}";
+        }
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders("POST".equals(method) ? 201 : 200, bytes.length);
+        try (var response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
 }
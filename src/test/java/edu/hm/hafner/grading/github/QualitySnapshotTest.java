@@ -0,0 +1,161 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.coverage.Coverage;
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.Metric;
+import edu.hm.hafner.coverage.ModuleNode;
+import edu.hm.hafner.grading.AggregatedScore;
+import edu.hm.hafner.grading.CoverageScore;
+import edu.hm.hafner.grading.github.QualitySnapshot.Counter;
+import edu.hm.hafner.grading.github.QualitySnapshot.FileResult;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QualitySnapshotTest {
+    private static final String FILE = "src/main/java/Foo.java";
+
+    @Test
+    void shouldWriteAndReadSnapshot(@TempDir final Path folder) throws IOException {
+        var snapshot = createSnapshot(QualitySnapshot.VERSION);
+        var file = folder.resolve(QualityMonitor.SNAPSHOT_FILE);
+
+        snapshot.write(file);
+
+        assertThat(Files.size(file)).isLessThan(1024);
+        assertThat(QualitySnapshot.read(file, new FilteredLog())).contains(snapshot);
+    }
+
+    @Test
+    void shouldIgnoreSnapshotOfOtherVersion(@TempDir final Path folder) throws IOException {
+        var file = folder.resolve(QualityMonitor.SNAPSHOT_FILE);
+        createSnapshot(QualitySnapshot.VERSION + 1).write(file);
+
+        var log = new FilteredLog();
+        assertThat(QualitySnapshot.read(file, log)).isEmpty();
+        assertThat(log.getInfoMessages()).anySatisfy(message -> assertThat(message).contains("Ignoring"));
+    }
+
+    @Test
+    void shouldReportBrokenSnapshot(@TempDir final Path folder) throws IOException {
+        var file = folder.resolve(QualityMonitor.SNAPSHOT_FILE);
+        Files.writeString(file, "{ broken");
+
+        var log = new FilteredLog();
+        assertThat(QualitySnapshot.read(file, log)).isEmpty();
+        assertThat(log.hasErrors()).isTrue();
+    }
+
+    @Test
+    void shouldCreateDeltaMarkdown() {
+        var markdown = createSnapshot(QualitySnapshot.VERSION).createDeltaMarkdown(
+                Map.of("line", 82.5, "checkstyle", 10.0, "pmd", 3.0));
+
+        assertThat(markdown).contains("#### Delta to reference `0123456`",
+                "| checkstyle | 12.00 | 10.00 | -2.00 |",
+                "| line | 80.00 | 82.50 | +2.50 |",
+                "| mutation | 60.00 | - | - |",
+                "| pmd | - | 3.00 | - |");
+    }
+
+    @Test
+    void shouldCompareOnlyChangedFiles() {
+        var reference = new QualitySnapshot(QualitySnapshot.VERSION, "0123456789abcdef", Map.of(), Map.of(
+                FILE, new FileResult(Map.of("line", new Counter(8, 2)), List.of("a", "b", "b")),
+                "src/main/java/Unchanged.java", new FileResult(Map.of("line", new Counter(90, 10)), List.of("c"))));
+        var current = new QualitySnapshot(QualitySnapshot.VERSION, "fedcba9876543210", Map.of(), Map.of(
+                FILE, new FileResult(Map.of("line", new Counter(10, 0)), List.of("b", "d", "e"))));
+
+        var markdown = reference.createChangedFilesDeltaMarkdown(current, List.of(FILE, "README.md"),
+                UnaryOperator.identity());
+
+        assertThat(markdown).contains("#### Delta of the changed files",
+                "| `src/main/java/Foo.java` | 100.00% (+20.00) | - | - | 2 | 2 |",
+                "Estimated coverage of the project: line 90.91% (+1.82)")
+                .doesNotContain("Unchanged.java", "README.md");
+    }
+
+    @Test
+    void shouldCompareSnapshotsWithPackagePathsOfChangedModules() {
+        var changed = "module/src/main/java/edu/hm/Foo.java";
+        var resolver = new PathResolver(List.of(changed), _ -> List.of(changed), "/github/workspace/");
+
+        var reference = QualitySnapshot.create(createScore(8, 2), "reference", UnaryOperator.identity());
+        var current = QualitySnapshot.create(createScore(10, 0), "current", UnaryOperator.identity(),
+                key -> changed.equals(resolver.resolve(key)));
+
+        assertThat(reference.files()).containsOnlyKeys("edu/hm/Foo.java", "edu/hm/Bar.java");
+        assertThat(current.files()).containsOnlyKeys("edu/hm/Foo.java");
+
+        var markdown = reference.createChangedFilesDeltaMarkdown(current, List.of(changed), resolver::resolve);
+
+        assertThat(markdown).contains(
+                "| `module/src/main/java/edu/hm/Foo.java` | 100.00% (+20.00) | - | - | 0 | 0 |",
+                "Estimated coverage of the project: line 90.91% (+1.82)");
+    }
+
+    @Test
+    void shouldTakeTheCountersOfEachMetricFromTheOwningScore() {
+        var score = mock(AggregatedScore.class);
+        when(score.getCodeCoverageScores()).thenReturn(List.of(
+                createCoverageScore(createFile("Foo.java", createCoverage(Metric.LINE, 8, 2))),
+                createCoverageScore(createFile("Foo.java", createCoverage(Metric.LINE, 1, 1)))));
+        when(score.getMutationCoverageScores()).thenReturn(List.of(
+                createCoverageScore(createFile("Foo.java",
+                        createCoverage(Metric.LINE, 1, 9), createCoverage(Metric.MUTATION, 3, 1)))));
+
+        var snapshot = QualitySnapshot.create(score, "sha", UnaryOperator.identity());
+
+        assertThat(snapshot.files().get("edu/hm/Foo.java").coverage()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "line", new Counter(8, 2), "mutation", new Counter(3, 1)));
+    }
+
+    private AggregatedScore createScore(final int covered, final int missed) {
+        var score = mock(AggregatedScore.class);
+        var coverageScore = createCoverageScore(
+                createFile("Foo.java", createCoverage(Metric.LINE, covered, missed)),
+                createFile("Bar.java", createCoverage(Metric.LINE, 90, 10)));
+        when(score.getCodeCoverageScores()).thenReturn(List.of(coverageScore));
+        return score;
+    }
+
+    private CoverageScore createCoverageScore(final FileNode... files) {
+        var root = new ModuleNode("module");
+        for (FileNode file : files) {
+            root.addChild(file);
+        }
+        var coverageScore = mock(CoverageScore.class);
+        when(coverageScore.getReport()).thenReturn(root);
+        return coverageScore;
+    }
+
+    private FileNode createFile(final String name, final Coverage... values) {
+        var file = new FileNode(name, "edu/hm/" + name);
+        for (Coverage value : values) {
+            file.addValue(value);
+        }
+        return file;
+    }
+
+    private Coverage createCoverage(final Metric metric, final int covered, final int missed) {
+        return new CoverageBuilder().withMetric(metric).withCovered(covered).withMissed(missed).build();
+    }
+
+    private QualitySnapshot createSnapshot(final int version) {
+        return new QualitySnapshot(version, "0123456789abcdef",
+                Map.of("line", 80.0, "checkstyle", 12.0, "mutation", 60.0),
+                Map.of(FILE, new FileResult(Map.of("line", new Counter(8, 2)), List.of("fingerprint-1"))));
+    }
+}
@@ -0,0 +1,102 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.hm.hafner.grading.github.ReportPatternScanner.ToolScan;
+import edu.hm.hafner.util.FilteredLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReportPatternScannerTest {
+    private static final String CONFIGURATION = """
+            {
+              "tests": {
+                "tools": [
+                  {
+                    "id": "junit",
+                    "name": "Unittests",
+                    "pattern": "**/target/*-reports/TEST*.xml"
+                  }
+                ]
+              },
+              "analysis": [
+                {
+                  "name": "Style",
+                  "tools": [
+                    {
+                      "id": "checkstyle",
+                      "pattern": "**/checkstyle-result.xml, **/checkstyle.xml"
+                    }
+                  ]
+                }
+              ]
+            }
+            """;
+
+    @TempDir
+    private Path workspace;
+
+    @Test
+    void shouldScanReportFilesOfEachTool() throws IOException {
+        write("module/target/surefire-reports/TEST-First.xml", 100);
+        write("module/target/surefire-reports/TEST-Second.xml", 50);
+        write("module/target/surefire-reports/First.txt", 10);
+        write("checkstyle-result.xml", 30);
+        write("module/target/checkstyle.xml", 20);
+
+        var log = new FilteredLog();
+        var scans = new ReportPatternScanner(workspace).scan(CONFIGURATION, Map.of("checkstyle", 7), log);
+
+        assertThat(log.getErrorMessages()).isEmpty();
+        assertThat(scans).hasSize(2);
+        assertThat(scans.get(0)).satisfies(tool -> {
+            assertThat(tool.id()).isEqualTo("junit");
+            assertThat(tool.name()).isEqualTo("Unittests");
+            assertThat(tool.files()).isEqualTo(2);
+            assertThat(tool.bytes()).isEqualTo(150);
+            assertThat(tool.records()).isEqualTo(-1);
+        });
+        assertThat(scans.get(1)).satisfies(tool -> {
+            assertThat(tool.id()).isEqualTo("checkstyle");
+            assertThat(tool.name()).isEqualTo("checkstyle");
+            assertThat(tool.files()).isEqualTo(2);
+            assertThat(tool.bytes()).isEqualTo(50);
+            assertThat(tool.records()).isEqualTo(7);
+        });
+    }
+
+    @Test
+    void shouldCountFilesThatMatchSeveralToolsForEachTool() throws IOException {
+        write("target/checkstyle-result.xml", 30);
+
+        var scans = new ReportPatternScanner(workspace).scan("""
+                {"analysis": [{"tools": [
+                  {"id": "checkstyle", "pattern": "**/checkstyle-result.xml"},
+                  {"id": "all", "pattern": "**/*.xml"}
+                ]}]}
+                """, Map.of(), new FilteredLog());
+
+        assertThat(scans).extracting(ToolScan::id, ToolScan::files, ToolScan::bytes)
+                .containsExactly(tuple("checkstyle", 1, 30L), tuple("all", 1, 30L));
+    }
+
+    @Test
+    void shouldLogErrorForInvalidConfiguration() {
+        var log = new FilteredLog();
+
+        assertThat(new ReportPatternScanner(workspace).scan("{ tools: ", Map.of(), log)).isEmpty();
+        assertThat(log.getErrorMessages()).isNotEmpty();
+    }
+
+    private void write(final String fileName, final int size) throws IOException {
+        var file = workspace.resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "x".repeat(size));
+    }
+}
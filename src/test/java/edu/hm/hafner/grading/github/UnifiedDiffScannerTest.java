@@ -0,0 +1,103 @@
+package edu.hm.hafner.grading.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UnifiedDiffScannerTest {
+    @Test
+    void shouldReportConsecutiveAddedLinesAsRange() {
+        var diff = """
+                @@ -1,3 +1,6 @@
+                 line1
+                +added1
+                +added2
+                +added3
+                 line2
+                +added4
+                """;
+        assertThat(scan(diff)).containsExactly(new Range(2, 4), new Range(6, 6));
+    }
+
+    @Test
+    void shouldNotMergeRangesOfDifferentHunks() {
+        var diff = """
+                @@ -1,1 +1,2 @@
+                +a
+                @@ -5,1 +2,2 @@
+                +b
+                @@ -10,1 +10,2 @@
+                +c
+                """;
+        assertThat(scan(diff)).containsExactly(new Range(1, 2), new Range(10, 10));
+    }
+
+    @Test
+    void shouldParseHunkHeadersWithoutCount() {
+        var diff = """
+                @@ -1 +7 @@ public class Foo {
+                +a
+                """;
+        assertThat(scan(diff)).containsExactly(new Range(7, 7));
+    }
+
+    @Test
+    @SuppressWarnings("StringConcatToTextBlock")
+    void shouldIgnoreCarriageReturnAtLineEnd() {
+        var diff = "@@ -1,1 +3,2 @@\r\n"
+                + "\r\n"
+                + " line1\r\n"
+                + "+added1\r\n"
+                + "+added2";
+        assertThat(scan(diff)).containsExactly(new Range(4, 5));
+    }
+
+    @Test
+    void shouldIgnoreMalformedHunkHeaders() {
+        var diff = """
+                @@ -1,x +3 @@
+                +a
+                @@ -1 +2, @@
+                +b
+                @@ -1 +99999999999 @@
+                +c
+                @@-1 +2 @@
+                +d
+                """;
+        assertThat(scan(diff)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepPointerOfPreviousHunkForMalformedHeader() {
+        var diff = """
+                @@ -1,1 +4,1 @@
+                +a
+                @@ broken @@
+                +b
+                """;
+        assertThat(scan(diff)).containsExactly(new Range(4, 5));
+    }
+
+    @Test
+    void shouldResetStateAfterEachPatch() {
+        var ranges = new ArrayList<Range>();
+        var scanner = new UnifiedDiffScanner((first, last) -> ranges.add(new Range(first, last)));
+
+        scanner.scan("@@ -1,1 +1,2 @@\n+a\n");
+        scanner.scan("+b\n@@ -1,1 +2,2 @@\n+c\n");
+
+        assertThat(ranges).containsExactly(new Range(1, 1), new Range(2, 2));
+    }
+
+    private List<Range> scan(final String diff) {
+        var ranges = new ArrayList<Range>();
+        new UnifiedDiffScanner((first, last) -> ranges.add(new Range(first, last))).scan(diff);
+        return ranges;
+    }
+
+    private record Range(int first, int last) {
+    }
+}